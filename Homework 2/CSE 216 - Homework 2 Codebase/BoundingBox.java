@@ -0,0 +1,138 @@
+/**
+ * An axis-aligned rectangle in the two-dimensional x-y plane, given by its
+ * least and greatest <code>x</code> and <code>y</code> values. Bounding boxes
+ * are immutable.
+ */
+public final class BoundingBox {
+
+    private final double minX, minY, maxX, maxY;
+
+    public BoundingBox(double minX, double minY, double maxX, double maxY) {
+        if (minX > maxX || minY > maxY)
+            throw new IllegalArgumentException("Minimum Must not be Greater Than Maximum");
+
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @return the degenerate box holding just the given point.
+     */
+    public static BoundingBox ofPoint(double x, double y) {
+        return new BoundingBox(x, y, x, y);
+    }
+
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    public double centerX() {
+        return (minX + maxX) / 2;
+    }
+
+    public double centerY() {
+        return (minY + maxY) / 2;
+    }
+
+    /**
+     * @return the area covered by this box.
+     */
+    public double area() {
+        return (maxX - minX) * (maxY - minY);
+    }
+
+    /**
+     * @param other the other box.
+     * @return <code>true</code> if the two boxes share at least one point.
+     */
+    public boolean intersects(BoundingBox other) {
+        return minX <= other.maxX && other.minX <= maxX && minY <= other.maxY && other.minY <= maxY;
+    }
+
+    /**
+     * @param other the other box.
+     * @return <code>true</code> if the other box lies entirely inside this one.
+     */
+    public boolean contains(BoundingBox other) {
+        return minX <= other.minX && other.maxX <= maxX && minY <= other.minY && other.maxY <= maxY;
+    }
+
+    /**
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @return <code>true</code> if the point lies inside or on the edge of this
+     *         box.
+     */
+    public boolean contains(double x, double y) {
+        return minX <= x && x <= maxX && minY <= y && y <= maxY;
+    }
+
+    /**
+     * @param other the other box.
+     * @return the smallest box holding both this box and the other one.
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.max(maxX, other.maxX),
+                Math.max(maxY, other.maxY));
+    }
+
+    /**
+     * Returns the squared distance between the given point and the closest point
+     * of this box, which is 0 if the point is inside the box.
+     *
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @return the squared distance to this box.
+     */
+    public double squaredDistance(double x, double y) {
+        double dx = x < minX ? minX - x : (x > maxX ? x - maxX : 0);
+        double dy = y < minY ? minY - y : (y > maxY ? y - maxY : 0);
+
+        return dx * dx + dy * dy;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof BoundingBox) {
+            BoundingBox box = (BoundingBox) obj;
+
+            return box.minX == minX && box.minY == minY && box.maxX == maxX && box.maxY == maxY;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Double.hashCode(minX);
+        result = 31 * result + Double.hashCode(minY);
+        result = 31 * result + Double.hashCode(maxX);
+        result = 31 * result + Double.hashCode(maxY);
+
+        return result;
+    }
+
+    /**
+     * @return the string representation of this box.
+     */
+    @Override
+    public String toString() {
+        return "BoundingBox[(" + minX + ", " + minY + "), (" + maxX + ", " + maxY + ")]";
+    }
+}
@@ -0,0 +1,288 @@
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A printer that prints each shape on its own line, just like {@link Printer},
+ * but without a synchronized and flushed write per shape. Shapes are formatted
+ * into a single reused {@link StringBuilder}, encoded into a large byte buffer,
+ * and written to a {@link WritableByteChannel} only when the buffer is full or
+ * the printer is flushed.
+ *
+ * In background mode a separate thread does the writing while the caller keeps
+ * formatting into the next buffer. There is a fixed number of buffers, so a
+ * caller that gets too far ahead of the writer blocks until a buffer is free
+ * again.
+ *
+ * Nothing is guaranteed to be written until {@link #flush()} or
+ * {@link #close()} is called.
+ */
+public class BufferedPrinter extends AbstractPrinter<TwoDShape> implements Flushable, Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int BACKGROUND_BUFFERS = 4;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder line = new StringBuilder(128);
+
+    // Only used in background mode: empty buffers, and full buffers to write.
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> full;
+    private final Thread writer;
+    private volatile IOException failure;
+
+    private ByteBuffer buffer;
+    private boolean closed;
+
+    /**
+     * Creates a printer writing to standard output on the calling thread.
+     * Closing this printer leaves standard output open.
+     */
+    public BufferedPrinter() {
+        this(Channels.newChannel(new FileOutputStream(FileDescriptor.out)), false, false);
+    }
+
+    /**
+     * @param channel    the channel to write to, which is closed along with this
+     *                   printer.
+     * @param background whether writing is done by a separate thread.
+     */
+    public BufferedPrinter(WritableByteChannel channel, boolean background) {
+        this(channel, background, true);
+    }
+
+    private BufferedPrinter(WritableByteChannel channel, boolean background, boolean closeChannel) {
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+
+        if (!background) {
+            this.free = null;
+            this.full = null;
+            this.writer = null;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            return;
+        }
+
+        this.free = new ArrayBlockingQueue<>(BACKGROUND_BUFFERS);
+        this.full = new ArrayBlockingQueue<>(BACKGROUND_BUFFERS + 1);
+
+        for (int i = 0; i < BACKGROUND_BUFFERS; i++)
+            free.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+        this.buffer = free.remove();
+        this.writer = new Thread(this::writeLoop, "BufferedPrinter-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Prints the specified shape on its own line, in the same form as its
+     * <code>toString()</code>.
+     *
+     * @throws UncheckedIOException if an earlier write failed.
+     */
+    @Override
+    void print(TwoDShape s) {
+        line.setLength(0);
+        format(s, line);
+        line.append(LINE_SEPARATOR);
+
+        try {
+            encode(CharBuffer.wrap(line));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends the same text as <code>s.toString()</code> to the given builder,
+     * without building any intermediate strings for the shapes of this package.
+     */
+    static void format(TwoDShape s, StringBuilder sb) {
+        if (s instanceof Circle) {
+            Circle circle = (Circle) s;
+            sb.append("Circle[center: ").append(circle.getRoot().getX()).append(", ")
+                    .append(circle.getRoot().getY()).append("; radius: ").append(circle.getRadius()).append(']');
+        } else if (s instanceof Triangle) {
+            sb.append("Triangle");
+            formatVertices(((Triangle) s).vertices, sb);
+        } else if (s instanceof Quadrilateral) {
+            sb.append("Quadrilateral");
+            formatVertices(((Quadrilateral) s).vertices, sb);
+        } else {
+            sb.append(s);
+        }
+    }
+
+    private static void formatVertices(List<TwoDPoint> vertices, StringBuilder sb) {
+        sb.append('[');
+
+        for (int i = 0; i < vertices.size(); i++) {
+            if (i > 0)
+                sb.append(", ");
+
+            TwoDPoint vertex = vertices.get(i);
+            sb.append('(').append(vertex.getX()).append(", ").append(vertex.getY()).append(')');
+        }
+
+        sb.append(']');
+    }
+
+    private void encode(CharBuffer chars) throws IOException {
+        checkOpen();
+
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, false);
+
+            if (result.isUnderflow())
+                return;
+            if (result.isOverflow())
+                submit();
+            else
+                result.throwException();
+        }
+    }
+
+    /**
+     * Hands the current buffer off to be written, and makes an empty one current.
+     */
+    private void submit() throws IOException {
+        if (buffer.position() == 0)
+            return;
+
+        buffer.flip();
+
+        if (writer == null) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+            return;
+        }
+
+        try {
+            full.put(buffer);
+            buffer = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted While Waiting for the Writer", e);
+        }
+
+        checkFailure();
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                ByteBuffer next = full.take();
+
+                // An empty buffer is the signal to stop.
+                if (!next.hasRemaining())
+                    return;
+
+                try {
+                    if (failure == null) {
+                        while (next.hasRemaining())
+                            channel.write(next);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+
+                next.clear();
+                free.put(next);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes out everything printed so far, and waits until it has been written.
+     *
+     * @throws IOException if writing failed.
+     */
+    @Override
+    public void flush() throws IOException {
+        checkOpen();
+        submit();
+
+        if (writer != null) {
+            // Once every buffer is back in the free queue, the writer is idle.
+            ByteBuffer[] all = new ByteBuffer[BACKGROUND_BUFFERS - 1];
+
+            try {
+                for (int i = 0; i < all.length; i++)
+                    all[i] = free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted While Waiting for the Writer", e);
+            } finally {
+                for (ByteBuffer b : all) {
+                    if (b != null)
+                        free.add(b);
+                }
+            }
+
+            checkFailure();
+        }
+    }
+
+    /**
+     * Flushes this printer, stops the writer thread and closes the channel, unless
+     * it is standard output.
+     *
+     * @throws IOException if writing failed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+
+        try {
+            flush();
+        } finally {
+            closed = true;
+
+            if (writer != null) {
+                full.add(ByteBuffer.allocate(0));
+
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            if (closeChannel)
+                channel.close();
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed)
+            throw new IOException("Printer is Closed");
+
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null)
+            throw failure;
+    }
+}
@@ -1,10 +1,11 @@
 import java.util.ArrayList;
 import java.util.List;
 
-public class Circle implements TwoDShape, Positionable {
+public class Circle implements TwoDShape, ObservablePositionable {
 
     private TwoDPoint center;
     private double radius;
+    private final List<PositionListener> listeners = new ArrayList<>();
 
     public Circle(double x, double y, double r) {
         if (r < 0) {
@@ -32,6 +33,31 @@ public class Circle implements TwoDShape, Positionable {
         }
 
         this.center = (TwoDPoint) points.get(0);
+        firePositionChanged();
+    }
+
+    /**
+     * Registers a listener to be told whenever this circle is moved.
+     *
+     * @param listener the listener to add.
+     */
+    @Override
+    public void addPositionListener(PositionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener to remove.
+     */
+    @Override
+    public void removePositionListener(PositionListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void firePositionChanged() {
+        for (PositionListener listener : listeners) {
+            listener.positionChanged(this);
+        }
     }
 
     /**
@@ -53,6 +79,13 @@ public class Circle implements TwoDShape, Positionable {
         return center;
     }
 
+    /**
+     * @return the radius of this circle.
+     */
+    public double getRadius() {
+        return radius;
+    }
+
     /**
      * @return the number of sides of this circle, which is always set to positive
      *         infinity
@@ -92,6 +125,27 @@ public class Circle implements TwoDShape, Positionable {
         return 2 * Math.PI * radius;
     }
 
+    /**
+     * @return the box spanning one radius around the center of this circle.
+     */
+    @Override
+    public BoundingBox boundingBox() {
+        return new BoundingBox(center.getX() - radius, center.getY() - radius, center.getX() + radius,
+                center.getY() + radius);
+    }
+
+    /**
+     * @return <code>true</code> if (x, y) is no further than one radius away from
+     *         the center of this circle.
+     */
+    @Override
+    public boolean contains(double x, double y) {
+        double dx = x - center.getX();
+        double dy = y - center.getY();
+
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
     /**
      * @return the string representation of this object.
      */
@@ -102,6 +156,6 @@ public class Circle implements TwoDShape, Positionable {
 
     @Override
     public int compareTo(TwoDShape o) {
-        return ((Double) this.area()).compareTo(o.area());
+        return Double.compare(area(), o.area());
     }
 }
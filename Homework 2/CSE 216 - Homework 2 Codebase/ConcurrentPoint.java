@@ -0,0 +1,183 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A point in the two-dimensional x-y plane that many threads can move and read
+ * at once. Unlike {@link TwoDPoint}, both coordinates can be changed together
+ * with {@link #set} or {@link #translate}, and readers always see a pair of
+ * coordinates that was actually set, never the x of one update and the y of
+ * another.
+ *
+ * This is done with a sequence lock. A writer makes the version odd, writes the
+ * coordinates and makes the version even again. A reader reads the version, the
+ * coordinates and the version again, and starts over if the two versions
+ * differ or the first was odd. Readers never write to the point, so they never
+ * hold up writers or each other; writers only wait for other writers.
+ */
+public class ConcurrentPoint implements Point {
+
+    private static final VarHandle VERSION, X, Y;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VERSION = lookup.findVarHandle(ConcurrentPoint.class, "version", long.class);
+            X = lookup.findVarHandle(ConcurrentPoint.class, "x", double.class);
+            Y = lookup.findVarHandle(ConcurrentPoint.class, "y", double.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long version;
+    private double x, y;
+
+    public ConcurrentPoint(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * @return the x value of this point.
+     */
+    @Override
+    public double getX() {
+        return (double) X.getOpaque(this);
+    }
+
+    /**
+     * @return the y value of this point.
+     */
+    public double getY() {
+        return (double) Y.getOpaque(this);
+    }
+
+    /**
+     * Sets both coordinates of this point as a single update.
+     *
+     * @param x the new x value.
+     * @param y the new y value.
+     */
+    public void set(double x, double y) {
+        long v = lock();
+        X.setOpaque(this, x);
+        Y.setOpaque(this, y);
+        VERSION.setRelease(this, v + 2);
+    }
+
+    /**
+     * @param x the new x value.
+     */
+    public void setX(double x) {
+        long v = lock();
+        X.setOpaque(this, x);
+        VERSION.setRelease(this, v + 2);
+    }
+
+    /**
+     * @param y the new y value.
+     */
+    public void setY(double y) {
+        long v = lock();
+        Y.setOpaque(this, y);
+        VERSION.setRelease(this, v + 2);
+    }
+
+    /**
+     * Moves this point by the given amounts, as a single update.
+     *
+     * @param dx the amount to add to the x value.
+     * @param dy the amount to add to the y value.
+     */
+    public void translate(double dx, double dy) {
+        long v = lock();
+        X.setOpaque(this, x + dx);
+        Y.setOpaque(this, y + dy);
+        VERSION.setRelease(this, v + 2);
+    }
+
+    /**
+     * Waits until no other writer is updating this point, and makes the version
+     * odd to tell readers an update is under way.
+     *
+     * @return the even version before the update.
+     */
+    private long lock() {
+        while (true) {
+            long v = version;
+
+            if ((v & 1) == 0 && VERSION.compareAndSet(this, v, v + 1)) {
+                // The odd version must be visible before any of the new coordinates.
+                VarHandle.releaseFence();
+                return v;
+            }
+
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return the x and y values of this point, from a single update.
+     */
+    @Override
+    public double[] coordinates() {
+        while (true) {
+            long v = version;
+
+            if ((v & 1) == 0) {
+                double x = (double) X.getOpaque(this);
+                double y = (double) Y.getOpaque(this);
+                VarHandle.acquireFence();
+
+                if (version == v)
+                    return new double[] { x, y };
+            }
+
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return a {@link TwoDPoint} with the coordinates of this point, from a
+     *         single update.
+     */
+    public TwoDPoint toTwoDPoint() {
+        double[] coordinates = coordinates();
+        return new TwoDPoint(coordinates[0], coordinates[1]);
+    }
+
+    /**
+     * @return the distance between this point and the origin.
+     */
+    @Override
+    public double distanceFromOrigin() {
+        return Math.sqrt(squaredDistanceFromOrigin());
+    }
+
+    /**
+     * @return the squared distance between this point and the origin.
+     */
+    @Override
+    public double squaredDistanceFromOrigin() {
+        double[] coordinates = coordinates();
+        return coordinates[0] * coordinates[0] + coordinates[1] * coordinates[1];
+    }
+
+    /**
+     * @return the string representation of this point, in the same form as a
+     *         {@link TwoDPoint}.
+     */
+    @Override
+    public String toString() {
+        double[] coordinates = coordinates();
+        return "(" + coordinates[0] + ", " + coordinates[1] + ")";
+    }
+
+    /**
+     * Compares points by their distance from the origin, like {@link TwoDPoint}.
+     */
+    @Override
+    public int compareTo(Point o) {
+        return Double.compare(squaredDistanceFromOrigin(), o.squaredDistanceFromOrigin());
+    }
+}
@@ -0,0 +1,284 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A triangle or quadrilateral that many threads can move and read at once.
+ *
+ * The vertices are never changed in place. Every update builds a new
+ * {@link Triangle} or {@link Quadrilateral} from private copies of the given
+ * points, computes its area, perimeter, bounding box and centroid, and only then
+ * publishes it with a single volatile write. Readers work on whichever version
+ * was published last, so they always see one consistent set of vertices, never
+ * take a lock and never hold up a writer. Updates that depend on the current
+ * position, like {@link #snap()} and {@link #translate}, are retried if another
+ * thread published a new version in the meantime.
+ *
+ * Points handed in or out are copies, so moving a point after passing it to
+ * {@link #setPosition} does not move this shape.
+ *
+ * Listeners are called on whichever thread made the change, after it has been
+ * published, so they may be called from several threads at once and must be
+ * thread-safe. Each call holds the lock of the listener itself, which makes
+ * changes reach a listener one at a time: an {@link OrderedIndex} or
+ * {@link SpatialIndex} shared by several of these shapes is re-keyed safely, as
+ * long as every other thread using that index also synchronizes on it.
+ */
+public class ConcurrentPolygon implements TwoDShape, ObservablePositionable {
+
+    private static final VarHandle CURRENT;
+
+    static {
+        try {
+            CURRENT = MethodHandles.lookup().findVarHandle(ConcurrentPolygon.class, "current", TwoDShape.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int sides;
+    private final List<PositionListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Either a Triangle or a Quadrilateral, which is never changed once published.
+    private volatile TwoDShape current;
+
+    /**
+     * @param vertices the three vertices of a triangle or the four vertices of a
+     *                 quadrilateral, which may be {@link TwoDPoint}s or
+     *                 {@link ConcurrentPoint}s.
+     * @throws IllegalArgumentException if the vertices do not form a valid
+     *                                  triangle or quadrilateral.
+     */
+    public ConcurrentPolygon(List<? extends Point> vertices) {
+        if (vertices.size() != 3 && vertices.size() != 4)
+            throw new IllegalArgumentException("Input List Must be of Size 3 or 4!");
+
+        this.sides = vertices.size();
+        this.current = build(vertices);
+    }
+
+    /**
+     * Builds a new, not yet published version from copies of the first
+     * <code>sides</code> points, with all of its derived geometry filled in.
+     */
+    private TwoDShape build(List<? extends Point> points) {
+        if (points.size() < sides)
+            throw new IllegalArgumentException("Input List Must be at Least Size " + sides + "!");
+
+        List<TwoDPoint> copies = new ArrayList<>(sides);
+        for (int i = 0; i < sides; i++)
+            copies.add(copyOf(points.get(i)));
+
+        return seal(sides == 3 ? new Triangle(copies) : new Quadrilateral(copies));
+    }
+
+    private static TwoDPoint copyOf(Point point) {
+        if (point instanceof TwoDPoint)
+            return ((TwoDPoint) point).clone();
+        if (point instanceof ConcurrentPoint)
+            return ((ConcurrentPoint) point).toTwoDPoint();
+
+        throw new IllegalArgumentException("Points must be of type TwoDPoint");
+    }
+
+    /**
+     * Fills in the memoized geometry of a version on the writing thread, so that
+     * readers of the published version only ever read it.
+     */
+    private static TwoDShape seal(TwoDShape shape) {
+        shape.area();
+        shape.boundingBox();
+
+        if (shape instanceof Triangle) {
+            ((Triangle) shape).perimeter();
+            ((Triangle) shape).centroid();
+        } else {
+            ((Quadrilateral) shape).perimeter();
+            ((Quadrilateral) shape).centroid();
+        }
+
+        return shape;
+    }
+
+    /**
+     * Sets the position of this shape in one atomic step, ordering the vertices
+     * the same way {@link Triangle} and {@link Quadrilateral} do.
+     *
+     * @param points the new vertices; any beyond the number of sides of this
+     *               shape are ignored.
+     * @throws IllegalArgumentException if the points do not form a valid shape,
+     *                                  in which case the position is unchanged.
+     */
+    @Override
+    public void setPosition(List<? extends Point> points) {
+        current = build(points);
+        firePositionChanged();
+    }
+
+    /**
+     * @return copies of the vertices of the current version, in clockwise order
+     *         starting from the root.
+     */
+    @Override
+    public List<TwoDPoint> getPosition() {
+        return getPosition(current);
+    }
+
+    /**
+     * Snaps every vertex to its nearest integer-valued coordinates, as in
+     * {@link Triangle#snap()}, in one atomic step. If snapping would make the
+     * shape invalid, it is left unchanged.
+     */
+    public void snap() {
+        update(0, 0, true);
+    }
+
+    /**
+     * Moves every vertex by the given amounts, in one atomic step.
+     *
+     * @param dx the amount to add to every x value.
+     * @param dy the amount to add to every y value.
+     */
+    public void translate(double dx, double dy) {
+        update(dx, dy, false);
+    }
+
+    private void update(double dx, double dy, boolean snap) {
+        while (true) {
+            TwoDShape seen = current;
+            List<TwoDPoint> vertices = getPosition(seen);
+
+            for (TwoDPoint vertex : vertices) {
+                vertex.setX(vertex.getX() + dx);
+                vertex.setY(vertex.getY() + dy);
+            }
+
+            TwoDShape next = sides == 3 ? new Triangle(vertices) : new Quadrilateral(vertices);
+
+            if (snap) {
+                if (next instanceof Triangle)
+                    ((Triangle) next).snap();
+                else
+                    ((Quadrilateral) next).snap();
+            }
+
+            if (CURRENT.compareAndSet(this, seen, seal(next)))
+                break;
+        }
+
+        firePositionChanged();
+    }
+
+    private static List<TwoDPoint> getPosition(TwoDShape version) {
+        List<TwoDPoint> copies = new ArrayList<>(version.numSides());
+
+        for (Point vertex : ((Positionable) version).getPosition())
+            copies.add(((TwoDPoint) vertex).clone());
+
+        return copies;
+    }
+
+    /**
+     * @param listener the listener to add.
+     */
+    @Override
+    public void addPositionListener(PositionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener to remove.
+     */
+    @Override
+    public void removePositionListener(PositionListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void firePositionChanged() {
+        for (PositionListener listener : listeners) {
+            synchronized (listener) {
+                listener.positionChanged(this);
+            }
+        }
+    }
+
+    @Override
+    public int numSides() {
+        return sides;
+    }
+
+    @Override
+    public boolean isMember(List<? extends Point> vertices) {
+        if (vertices.size() < sides)
+            return false;
+
+        List<TwoDPoint> copies = new ArrayList<>(vertices.size());
+        for (Point vertex : vertices)
+            copies.add(copyOf(vertex));
+
+        return current.isMember(copies);
+    }
+
+    @Override
+    public double area() {
+        return current.area();
+    }
+
+    /**
+     * @return the perimeter of the current version.
+     */
+    public double perimeter() {
+        TwoDShape version = current;
+
+        if (version instanceof Triangle)
+            return ((Triangle) version).perimeter();
+
+        return ((Quadrilateral) version).perimeter();
+    }
+
+    /**
+     * @return the centroid of the current version.
+     */
+    public TwoDPoint centroid() {
+        TwoDShape version = current;
+
+        if (version instanceof Triangle)
+            return ((Triangle) version).centroid();
+
+        return ((Quadrilateral) version).centroid();
+    }
+
+    /**
+     * @return a copy of the root vertex of the current version.
+     */
+    @Override
+    public TwoDPoint getRoot() {
+        return current.getRoot().clone();
+    }
+
+    @Override
+    public BoundingBox boundingBox() {
+        return current.boundingBox();
+    }
+
+    @Override
+    public boolean contains(double x, double y) {
+        return current.contains(x, y);
+    }
+
+    /**
+     * @return the String representation of the current version, the same as that
+     *         of a {@link Triangle} or {@link Quadrilateral} with its vertices.
+     */
+    @Override
+    public String toString() {
+        return current.toString();
+    }
+
+    @Override
+    public int compareTo(TwoDShape o) {
+        return Double.compare(area(), o.area());
+    }
+}
@@ -0,0 +1,173 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A comparator that orders elements by a <code>double</code> key, such as the
+ * area of a shape or the x value of a point. Keys are compared with
+ * {@link Double#compare}, so nothing is boxed, and further keys can be added
+ * with {@link #thenComparingDouble} to break ties, again without boxing.
+ *
+ * {@link #sort(List)} does better than <code>List.sort</code> with this
+ * comparator: it extracts each key of each element exactly once into a
+ * primitive array, and sorts an array of indices by those arrays.
+ *
+ * @param <T> the type of the elements.
+ */
+@FunctionalInterface
+public interface DoubleKeyComparator<T> extends Comparator<T> {
+
+    /**
+     * @param t the element.
+     * @return the key of the element.
+     */
+    double key(T t);
+
+    /**
+     * @return the number of keys compared, including tie-breakers.
+     */
+    default int keyCount() {
+        return 1;
+    }
+
+    /**
+     * @param t     the element.
+     * @param level which key to return: 0 for the main key, 1 for the first
+     *              tie-breaker, and so on.
+     * @return that key of the element.
+     */
+    default double key(T t, int level) {
+        return key(t);
+    }
+
+    @Override
+    default int compare(T o1, T o2) {
+        return Double.compare(key(o1), key(o2));
+    }
+
+    /**
+     * @param next the key to compare elements by when all keys of this comparator
+     *             are equal.
+     * @return a comparator comparing the keys of this one, and then the given key.
+     */
+    @Override
+    default DoubleKeyComparator<T> thenComparingDouble(ToDoubleFunction<? super T> next) {
+        return new Chain<>(this, next);
+    }
+
+    /**
+     * @param key the function giving the key of an element.
+     * @param <T> the type of the elements.
+     * @return a comparator ordering elements by that key.
+     */
+    static <T> DoubleKeyComparator<T> comparingDouble(ToDoubleFunction<? super T> key) {
+        return key::applyAsDouble;
+    }
+
+    /**
+     * Stably sorts the specified list in the order of this comparator, computing
+     * every key of every element once.
+     *
+     * @param items the list to sort in place.
+     */
+    default void sort(List<T> items) {
+        List<T> copy = new ArrayList<>(items);
+        int[] order = sortedOrder(copy);
+        ListIterator<T> it = items.listIterator();
+
+        for (int i = 0; i < order.length; i++) {
+            it.next();
+            it.set(copy.get(order[i]));
+        }
+    }
+
+    /**
+     * Finds the order of the specified elements without moving them.
+     *
+     * @param items the elements.
+     * @return the indices of the elements, in the order of this comparator; equal
+     *         elements keep their relative order.
+     */
+    default int[] sortedOrder(List<? extends T> items) {
+        int n = items.size();
+        int levels = keyCount();
+        double[][] keys = new double[levels][n];
+        int[] order = new int[n];
+
+        int i = 0;
+
+        for (T item : items) {
+            order[i] = i;
+
+            for (int level = 0; level < levels; level++)
+                keys[level][i] = key(item, level);
+
+            i++;
+        }
+
+        // Stable sorts from the last tie-breaker up to the main key leave the
+        // elements ordered by all the keys together.
+        for (int level = levels - 1; level >= 0; level--)
+            ShapeSorter.sortIndices(keys[level], order);
+
+        return order;
+    }
+
+    /**
+     * A comparator with tie-breakers, made by {@link #thenComparingDouble}.
+     */
+    final class Chain<T> implements DoubleKeyComparator<T> {
+
+        private final ToDoubleFunction<? super T>[] keys;
+
+        @SuppressWarnings("unchecked")
+        Chain(DoubleKeyComparator<T> first, ToDoubleFunction<? super T> next) {
+            if (first instanceof Chain) {
+                ToDoubleFunction<? super T>[] before = ((Chain<T>) first).keys;
+                keys = Arrays.copyOf(before, before.length + 1);
+            } else {
+                @SuppressWarnings({ "rawtypes", "unchecked" })
+                ToDoubleFunction<? super T>[] levels = new ToDoubleFunction[first.keyCount() + 1];
+
+                for (int level = 0; level < levels.length - 1; level++) {
+                    int l = level;
+                    levels[level] = t -> first.key(t, l);
+                }
+
+                keys = levels;
+            }
+
+            keys[keys.length - 1] = next;
+        }
+
+        @Override
+        public double key(T t) {
+            return keys[0].applyAsDouble(t);
+        }
+
+        @Override
+        public int keyCount() {
+            return keys.length;
+        }
+
+        @Override
+        public double key(T t, int level) {
+            return keys[level].applyAsDouble(t);
+        }
+
+        @Override
+        public int compare(T o1, T o2) {
+            for (ToDoubleFunction<? super T> key : keys) {
+                int c = Double.compare(key.applyAsDouble(o1), key.applyAsDouble(o2));
+
+                if (c != 0)
+                    return c;
+            }
+
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * A {@link Positionable} object that tells its registered
+ * {@link PositionListener}s whenever its position changes, be it through
+ * {@link #setPosition} or any other method that moves it.
+ */
+public interface ObservablePositionable extends Positionable {
+
+    /**
+     * @param listener the listener to add.
+     */
+    void addPositionListener(PositionListener listener);
+
+    /**
+     * @param listener the listener to remove.
+     */
+    void removePositionListener(PositionListener listener);
+}
@@ -0,0 +1,381 @@
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A collection that keeps its entries sorted by a {@link DoubleKeyComparator},
+ * such as shapes by area or by the x value of their root, in an indexable skip
+ * list. Adding, removing and re-keying an entry, looking up the entry at a given
+ * rank, finding the rank of an entry and counting the entries in a range of keys
+ * all take logarithmic time.
+ *
+ * The keys of each entry are computed when it is added and kept alongside it.
+ * Entries that are {@link ObservablePositionable} are re-keyed automatically
+ * whenever they are moved through {@link Positionable#setPosition} or
+ * <code>snap()</code>; only the moved entry is looked at. Objects changed any
+ * other way must be re-keyed through {@link #update}. Entries with equal keys
+ * stay in the order they were added.
+ *
+ * @param <T> the type of the entries.
+ */
+public class OrderedIndex<T> implements PositionListener {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final DoubleKeyComparator<? super T> comparator;
+    private final Map<T, Node<T>> nodes = new IdentityHashMap<>();
+
+    /*
+     * The width of a link is the number of entries it skips over, plus one. A
+     * link to the end of the list is as wide as if the end were one entry past
+     * the last, so every link of the head starts out with a width of 1.
+     */
+    private final Node<T> head = new Node<>(null, null, 0, MAX_LEVEL);
+    private long added;
+
+    /**
+     * @param comparator the order to keep the entries in.
+     */
+    public OrderedIndex(DoubleKeyComparator<? super T> comparator) {
+        this.comparator = comparator;
+
+        for (int i = 0; i < MAX_LEVEL; i++)
+            head.width[i] = 1;
+    }
+
+    /**
+     * @return an empty index of shapes in increasing order of area, which is
+     *         their natural ordering.
+     */
+    public static OrderedIndex<TwoDShape> byArea() {
+        return new OrderedIndex<>(DoubleKeyComparator.comparingDouble(TwoDShape::area));
+    }
+
+    /**
+     * @return an empty index of shapes in increasing order of the x value of
+     *         their root, as given by {@link Ordering.XLocationShapeComparator}.
+     */
+    public static OrderedIndex<TwoDShape> byRootX() {
+        return new OrderedIndex<>(new Ordering.XLocationShapeComparator());
+    }
+
+    /**
+     * @return the number of entries in this index.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Adds an entry to this index. Adding an entry that is already indexed has
+     * the same effect as {@link #update}.
+     *
+     * @param t the entry to add.
+     */
+    public void add(T t) {
+        if (nodes.containsKey(t)) {
+            update(t);
+            return;
+        }
+
+        Node<T> node = new Node<>(t, keysOf(t), added++, randomLevel());
+        nodes.put(t, node);
+        link(node);
+
+        if (t instanceof ObservablePositionable)
+            ((ObservablePositionable) t).addPositionListener(this);
+    }
+
+    /**
+     * Removes an entry from this index.
+     *
+     * @param t the entry to remove.
+     * @return <code>true</code> if the entry was indexed.
+     */
+    public boolean remove(T t) {
+        Node<T> node = nodes.remove(t);
+
+        if (node == null)
+            return false;
+
+        unlink(node);
+
+        if (t instanceof ObservablePositionable)
+            ((ObservablePositionable) t).removePositionListener(this);
+
+        return true;
+    }
+
+    /**
+     * Re-keys an entry after it has changed. An entry whose keys are unchanged is
+     * left where it is; otherwise it is moved to its new place, keeping its place
+     * among entries with equal keys.
+     *
+     * @param t the entry that was changed.
+     * @throws IllegalArgumentException if the entry is not in this index.
+     */
+    public void update(T t) {
+        Node<T> node = nodes.get(t);
+
+        if (node == null)
+            throw new IllegalArgumentException("Entry is not in this Index");
+
+        double[] keys = keysOf(t);
+
+        if (compareKeys(keys, node.keys) == 0)
+            return;
+
+        unlink(node);
+        node.keys = keys;
+        link(node);
+    }
+
+    /**
+     * Called by the indexed {@link ObservablePositionable} entries whenever they
+     * are moved.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void positionChanged(Positionable source) {
+        if (nodes.containsKey(source))
+            update((T) source);
+    }
+
+    /**
+     * @return the least entry.
+     * @throws NoSuchElementException if this index is empty.
+     */
+    public T first() {
+        if (head.next[0] == null)
+            throw new NoSuchElementException("Index is Empty");
+
+        return head.next[0].item;
+    }
+
+    /**
+     * @return the greatest entry.
+     * @throws NoSuchElementException if this index is empty.
+     */
+    public T last() {
+        return get(size() - 1);
+    }
+
+    /**
+     * @param rank the number of entries before the one to return.
+     * @return the entry at that rank.
+     * @throws NoSuchElementException if there is no entry at that rank.
+     */
+    public T get(int rank) {
+        if (rank < 0 || rank >= size())
+            throw new NoSuchElementException("No Entry at Rank " + rank);
+
+        Node<T> x = head;
+        int position = 0;
+
+        for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+            while (x.next[i] != null && position + x.width[i] <= rank + 1) {
+                position += x.width[i];
+                x = x.next[i];
+            }
+        }
+
+        return x.item;
+    }
+
+    /**
+     * @param t the entry.
+     * @return the number of entries before it, or -1 if it is not in this index.
+     */
+    public int rankOf(T t) {
+        Node<T> node = nodes.get(t);
+
+        if (node == null)
+            return -1;
+
+        Node<T> x = head;
+        int position = 0;
+
+        for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].compareTo(node) < 0) {
+                position += x.width[i];
+                x = x.next[i];
+            }
+        }
+
+        return position;
+    }
+
+    /**
+     * @param min the least main key to count.
+     * @param max the greatest main key to count.
+     * @return the number of entries whose main key is between <code>min</code>
+     *         and <code>max</code>, inclusive.
+     */
+    public int count(double min, double max) {
+        return Math.max(0, countBelow(max, true) - countBelow(min, false));
+    }
+
+    /**
+     * @param min the least main key to return.
+     * @param max the greatest main key to return.
+     * @return the entries whose main key is between <code>min</code> and
+     *         <code>max</code>, inclusive, in order.
+     */
+    public List<T> range(double min, double max) {
+        Node<T> x = head;
+
+        for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+            while (x.next[i] != null && Double.compare(x.next[i].keys[0], min) < 0)
+                x = x.next[i];
+        }
+
+        List<T> result = new ArrayList<>();
+
+        for (x = x.next[0]; x != null && Double.compare(x.keys[0], max) <= 0; x = x.next[0])
+            result.add(x.item);
+
+        return result;
+    }
+
+    /**
+     * @return all the entries, in order.
+     */
+    public List<T> toList() {
+        List<T> result = new ArrayList<>(size());
+
+        for (Node<T> x = head.next[0]; x != null; x = x.next[0])
+            result.add(x.item);
+
+        return result;
+    }
+
+    /**
+     * @return the number of entries whose main key is less than (or, if
+     *         <code>inclusive</code>, at most) <code>key</code>.
+     */
+    private int countBelow(double key, boolean inclusive) {
+        Node<T> x = head;
+        int position = 0;
+
+        for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+            while (x.next[i] != null) {
+                int c = Double.compare(x.next[i].keys[0], key);
+
+                if (c > 0 || (c == 0 && !inclusive))
+                    break;
+
+                position += x.width[i];
+                x = x.next[i];
+            }
+        }
+
+        return position;
+    }
+
+    private void link(Node<T> node) {
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Node<T>[] before = new Node[MAX_LEVEL];
+        int[] positions = new int[MAX_LEVEL];
+        Node<T> x = head;
+        int position = 0;
+
+        for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].compareTo(node) < 0) {
+                position += x.width[i];
+                x = x.next[i];
+            }
+
+            before[i] = x;
+            positions[i] = position;
+        }
+
+        // The node goes right after before[0], and everything after it moves up by
+        // one position.
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            if (i < node.next.length) {
+                node.next[i] = before[i].next[i];
+                node.width[i] = before[i].width[i] - (positions[0] - positions[i]);
+                before[i].next[i] = node;
+                before[i].width[i] = positions[0] - positions[i] + 1;
+            } else {
+                before[i].width[i]++;
+            }
+        }
+    }
+
+    private void unlink(Node<T> node) {
+        Node<T> x = head;
+
+        for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].compareTo(node) < 0)
+                x = x.next[i];
+
+            if (x.next[i] == node) {
+                x.width[i] += node.width[i] - 1;
+                x.next[i] = node.next[i];
+            } else {
+                x.width[i]--;
+            }
+        }
+
+        for (int i = 0; i < node.next.length; i++)
+            node.next[i] = null;
+    }
+
+    private double[] keysOf(T t) {
+        double[] keys = new double[comparator.keyCount()];
+
+        for (int level = 0; level < keys.length; level++)
+            keys[level] = comparator.key(t, level);
+
+        return keys;
+    }
+
+    private static int compareKeys(double[] a, double[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int c = Double.compare(a[i], b[i]);
+
+            if (c != 0)
+                return c;
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return a level from 1 up, each level half as likely as the one below.
+     */
+    private static int randomLevel() {
+        return Math.min(MAX_LEVEL, Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt()) + 1);
+    }
+
+    private static class Node<T> implements Comparable<Node<T>> {
+
+        final T item;
+        final long sequence;
+        final Node<T>[] next;
+        final int[] width;
+        double[] keys;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Node(T item, double[] keys, long sequence, int level) {
+            this.item = item;
+            this.keys = keys;
+            this.sequence = sequence;
+            this.next = new Node[level];
+            this.width = new int[level];
+        }
+
+        /**
+         * Orders nodes by their keys, and then by when they were added.
+         */
+        @Override
+        public int compareTo(Node<T> o) {
+            int c = compareKeys(keys, o.keys);
+            return c != 0 ? c : Long.compare(sequence, o.sequence);
+        }
+    }
+}
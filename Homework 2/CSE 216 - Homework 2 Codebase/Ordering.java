@@ -2,7 +2,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -15,11 +14,11 @@ public class Ordering {
      * x-value. That is, sorting with this comparator must order all the shapes in a
      * collection in increasing order of their least x-valued vertex.
      */
-    static class XLocationShapeComparator implements Comparator<TwoDShape> {
+    static class XLocationShapeComparator implements DoubleKeyComparator<TwoDShape> {
 
         @Override
-        public int compare(TwoDShape o1, TwoDShape o2) {
-            return ((Double) o1.getRoot().getX()).compareTo(o2.getRoot().getX());
+        public double key(TwoDShape s) {
+            return s.getRoot().getX();
         }
     }
 
@@ -28,11 +27,11 @@ public class Ordering {
      * x-value. That is, sorting with this comparator must order all the shapes in a
      * collection in increasing order of their x-values.
      */
-    static class XLocationPointComparator implements Comparator<Point> {
+    static class XLocationPointComparator implements DoubleKeyComparator<Point> {
 
         @Override
-        public int compare(Point o1, Point o2) {
-            return ((Double) o1.getX()).compareTo(o2.getX());
+        public double key(Point p) {
+            return p.getX();
         }
     }
 
@@ -0,0 +1,328 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds all pairs of overlapping shapes in a collection. Shapes touching at a
+ * single point or along an edge count as overlapping.
+ *
+ * This works in two phases. The broad phase is a sweep-and-prune over the
+ * bounding boxes: the shapes are sorted by the least x value of their box (the
+ * same kind of ordering as {@link Ordering.XLocationShapeComparator}), and each
+ * shape is only paired with the shapes that start before its box ends. Pairs
+ * whose boxes also overlap in y are handed to the narrow phase, which checks the
+ * actual shapes with the separating axis theorem. The sweep is split into
+ * ranges that run in parallel.
+ */
+public class OverlapDetector {
+
+    // Below this many shapes, a range of the sweep runs on the current thread.
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+
+    private OverlapDetector() {
+    }
+
+    /**
+     * Finds every pair of overlapping shapes in the given list. Each pair is
+     * packed into a single <code>long</code>, with the index of the first shape
+     * in the upper half and the index of the second in the lower half; use
+     * {@link #first} and {@link #second} to unpack them. The first index is
+     * always less than the second.
+     *
+     * @param shapes the shapes to check.
+     * @return the packed pairs of indices of overlapping shapes.
+     */
+    public static long[] findOverlaps(List<? extends TwoDShape> shapes) {
+        int n = shapes.size();
+        Geometry[] geometries = new Geometry[n];
+        double[] minX = new double[n], maxX = new double[n], minY = new double[n], maxY = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            geometries[i] = Geometry.of(shapes.get(i));
+
+            BoundingBox box = shapes.get(i).boundingBox();
+            minX[i] = box.getMinX();
+            maxX[i] = box.getMaxX();
+            minY[i] = box.getMinY();
+            maxY[i] = box.getMaxY();
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+
+        ShapeSorter.sortIndices(minX, order);
+
+        Sweep sweep = new Sweep(geometries, order, minX, maxX, minY, maxY, 0, n);
+
+        if (n < SEQUENTIAL_THRESHOLD)
+            return sweep.compute();
+
+        return ForkJoinPool.commonPool().invoke(sweep);
+    }
+
+    /**
+     * @param shapes the shapes to check.
+     * @return every pair of overlapping shapes, as two-element arrays.
+     */
+    public static List<TwoDShape[]> findOverlappingPairs(List<? extends TwoDShape> shapes) {
+        long[] pairs = findOverlaps(shapes);
+        List<TwoDShape[]> result = new ArrayList<>(pairs.length);
+
+        for (long pair : pairs)
+            result.add(new TwoDShape[] { shapes.get(first(pair)), shapes.get(second(pair)) });
+
+        return result;
+    }
+
+    /**
+     * @param pair a pair packed by {@link #findOverlaps}.
+     * @return the index of the first shape of the pair.
+     */
+    public static int first(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    /**
+     * @param pair a pair packed by {@link #findOverlaps}.
+     * @return the index of the second shape of the pair.
+     */
+    public static int second(long pair) {
+        return (int) pair;
+    }
+
+    /**
+     * Checks whether two shapes overlap, without looking at their bounding boxes
+     * first.
+     *
+     * @param a the first shape.
+     * @param b the second shape.
+     * @return <code>true</code> if the shapes share at least one point.
+     */
+    public static boolean overlaps(TwoDShape a, TwoDShape b) {
+        return Geometry.of(a).overlaps(Geometry.of(b));
+    }
+
+    /**
+     * Sweeps one range of the shapes sorted by least x value, pairing each of them
+     * with the shapes after it whose boxes start before its own box ends.
+     */
+    private static class Sweep extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Geometry[] geometries;
+        private final int[] order;
+        private final double[] minX, maxX, minY, maxY;
+        private final int from, to;
+
+        Sweep(Geometry[] geometries, int[] order, double[] minX, double[] maxX, double[] minY, double[] maxY,
+                int from, int to) {
+            this.geometries = geometries;
+            this.order = order;
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from >= SEQUENTIAL_THRESHOLD && getPool() != null) {
+                int mid = (from + to) >>> 1;
+                Sweep left = new Sweep(geometries, order, minX, maxX, minY, maxY, from, mid);
+                Sweep right = new Sweep(geometries, order, minX, maxX, minY, maxY, mid, to);
+
+                left.fork();
+                long[] rightPairs = right.compute();
+                long[] leftPairs = left.join();
+
+                long[] pairs = Arrays.copyOf(leftPairs, leftPairs.length + rightPairs.length);
+                System.arraycopy(rightPairs, 0, pairs, leftPairs.length, rightPairs.length);
+
+                return pairs;
+            }
+
+            long[] pairs = new long[16];
+            int size = 0;
+
+            for (int k = from; k < to; k++) {
+                int i = order[k];
+
+                for (int l = k + 1; l < order.length && minX[order[l]] <= maxX[i]; l++) {
+                    int j = order[l];
+
+                    if (minY[i] > maxY[j] || minY[j] > maxY[i])
+                        continue;
+
+                    if (!geometries[i].overlaps(geometries[j]))
+                        continue;
+
+                    if (size == pairs.length)
+                        pairs = Arrays.copyOf(pairs, size * 2);
+
+                    int lo = Math.min(i, j), hi = Math.max(i, j);
+                    pairs[size++] = ((long) lo << 32) | hi;
+                }
+            }
+
+            return Arrays.copyOf(pairs, size);
+        }
+    }
+
+    /**
+     * The exact shape of a {@link TwoDShape}, copied into primitive arrays once so
+     * the narrow phase does not have to go through {@link Positionable#getPosition}
+     * on every test. Polygons are split into a fan of triangles around their first
+     * vertex, which is exact for the star-shaped vertex order used by
+     * {@link Triangle} and {@link Quadrilateral}, and lets every test work on
+     * convex pieces.
+     */
+    private static class Geometry {
+
+        // For circles: the center and radius. For polygons: the vertices.
+        final double[] xs, ys;
+        final double radius;
+        final boolean circle;
+
+        private Geometry(double[] xs, double[] ys, double radius, boolean circle) {
+            this.xs = xs;
+            this.ys = ys;
+            this.radius = radius;
+            this.circle = circle;
+        }
+
+        static Geometry of(TwoDShape shape) {
+            if (shape instanceof Circle) {
+                Circle c = (Circle) shape;
+                return new Geometry(new double[] { c.getRoot().getX() }, new double[] { c.getRoot().getY() },
+                        c.getRadius(), true);
+            }
+
+            if (shape instanceof Positionable) {
+                List<? extends Point> vertices = ((Positionable) shape).getPosition();
+
+                if (vertices.size() >= 3) {
+                    double[] xs = new double[vertices.size()], ys = new double[vertices.size()];
+
+                    for (int i = 0; i < xs.length; i++) {
+                        double[] coordinates = vertices.get(i).coordinates();
+                        xs[i] = coordinates[0];
+                        ys[i] = coordinates[1];
+                    }
+
+                    return new Geometry(xs, ys, 0, false);
+                }
+            }
+
+            // Anything else is treated as its bounding box.
+            BoundingBox box = shape.boundingBox();
+            return new Geometry(new double[] { box.getMinX(), box.getMinX(), box.getMaxX(), box.getMaxX() },
+                    new double[] { box.getMinY(), box.getMaxY(), box.getMaxY(), box.getMinY() }, 0, false);
+        }
+
+        boolean overlaps(Geometry other) {
+            if (circle && other.circle) {
+                double dx = xs[0] - other.xs[0], dy = ys[0] - other.ys[0];
+                double r = radius + other.radius;
+
+                return dx * dx + dy * dy <= r * r;
+            }
+
+            if (circle)
+                return other.overlapsCircle(xs[0], ys[0], radius);
+            if (other.circle)
+                return overlapsCircle(other.xs[0], other.ys[0], other.radius);
+
+            for (int i = 1; i + 1 < xs.length; i++) {
+                for (int j = 1; j + 1 < other.xs.length; j++) {
+                    if (trianglesOverlap(xs[0], ys[0], xs[i], ys[i], xs[i + 1], ys[i + 1], other.xs[0], other.ys[0],
+                            other.xs[j], other.ys[j], other.xs[j + 1], other.ys[j + 1]))
+                        return true;
+                }
+            }
+
+            return false;
+        }
+
+        private boolean overlapsCircle(double cx, double cy, double r) {
+            for (int i = 1; i + 1 < xs.length; i++) {
+                if (triangleOverlapsCircle(xs[0], ys[0], xs[i], ys[i], xs[i + 1], ys[i + 1], cx, cy, r))
+                    return true;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * By the separating axis theorem, two triangles are apart if and only if one
+     * of their six edges has both of the triangles on opposite sides of it.
+     */
+    static boolean trianglesOverlap(double ax, double ay, double bx, double by, double cx, double cy, double dx,
+            double dy, double ex, double ey, double fx, double fy) {
+        return !separates(ax, ay, bx, by, cx, cy, dx, dy, ex, ey, fx, fy)
+                && !separates(bx, by, cx, cy, ax, ay, dx, dy, ex, ey, fx, fy)
+                && !separates(cx, cy, ax, ay, bx, by, dx, dy, ex, ey, fx, fy)
+                && !separates(dx, dy, ex, ey, fx, fy, ax, ay, bx, by, cx, cy)
+                && !separates(ex, ey, fx, fy, dx, dy, ax, ay, bx, by, cx, cy)
+                && !separates(fx, fy, dx, dy, ex, ey, ax, ay, bx, by, cx, cy);
+    }
+
+    /**
+     * @return <code>true</code> if the line through edge PQ has the third vertex
+     *         R of its own triangle strictly on one side, and all three vertices of
+     *         the other triangle strictly on the other side.
+     */
+    private static boolean separates(double px, double py, double qx, double qy, double rx, double ry, double ax,
+            double ay, double bx, double by, double cx, double cy) {
+        double side = cross(px, py, qx, qy, rx, ry);
+
+        if (side == 0)
+            return false;
+
+        return Math.signum(cross(px, py, qx, qy, ax, ay)) == -Math.signum(side)
+                && Math.signum(cross(px, py, qx, qy, bx, by)) == -Math.signum(side)
+                && Math.signum(cross(px, py, qx, qy, cx, cy)) == -Math.signum(side);
+    }
+
+    static boolean triangleOverlapsCircle(double ax, double ay, double bx, double by, double cx, double cy,
+            double px, double py, double r) {
+        double r2 = r * r;
+
+        // The center is inside the triangle, or the circle reaches one of its edges.
+        return insideTriangle(ax, ay, bx, by, cx, cy, px, py) || segmentDistanceSquared(ax, ay, bx, by, px, py) <= r2
+                || segmentDistanceSquared(bx, by, cx, cy, px, py) <= r2
+                || segmentDistanceSquared(cx, cy, ax, ay, px, py) <= r2;
+    }
+
+    private static boolean insideTriangle(double ax, double ay, double bx, double by, double cx, double cy,
+            double px, double py) {
+        double d1 = cross(ax, ay, bx, by, px, py);
+        double d2 = cross(bx, by, cx, cy, px, py);
+        double d3 = cross(cx, cy, ax, ay, px, py);
+
+        boolean negative = d1 < 0 || d2 < 0 || d3 < 0;
+        boolean positive = d1 > 0 || d2 > 0 || d3 > 0;
+
+        return !(negative && positive);
+    }
+
+    private static double segmentDistanceSquared(double ax, double ay, double bx, double by, double px, double py) {
+        double dx = bx - ax, dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+
+        double ex = ax + t * dx - px, ey = ay + t * dy - py;
+        return ex * ex + ey * ey;
+    }
+
+    private static double cross(double ax, double ay, double bx, double by, double cx, double cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+    }
+}
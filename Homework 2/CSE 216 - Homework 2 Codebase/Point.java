@@ -12,4 +12,16 @@ public interface Point extends Comparable<Point> {
     double getX();
 
     double distanceFromOrigin();
+
+    /**
+     * Returns the square of {@link #distanceFromOrigin()}. Since the square root
+     * preserves order, points can be compared on this value without taking a
+     * square root at all.
+     *
+     * @return the squared distance between this point and the origin.
+     */
+    default double squaredDistanceFromOrigin() {
+        double distance = distanceFromOrigin();
+        return distance * distance;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,180 @@
+import java.util.List;
+
+/**
+ * A batch of polygons that all have the same number of vertices, stored column
+ * by column: <code>xs[v][i]</code> and <code>ys[v][i]</code> are the coordinates
+ * of vertex <code>v</code> of polygon <code>i</code>.
+ *
+ * The area and perimeter kernels work one vertex column at a time, with a
+ * plain loop over all polygons that has no branches and no method calls in it.
+ * Loops of this form are compiled to SIMD instructions by the JIT, so thousands
+ * of shapes are processed per call at a fraction of the cost of calling
+ * {@link TwoDShape#area()} on each object.
+ */
+public class PolygonBatch {
+
+    private final double[][] xs, ys;
+    private final int count;
+
+    /**
+     * @param xs    the x values, indexed by vertex and then by polygon.
+     * @param ys    the y values, indexed by vertex and then by polygon.
+     * @param count the number of polygons.
+     * @throws IllegalArgumentException if the columns are too short, or the
+     *                                  polygons have fewer than three vertices.
+     */
+    public PolygonBatch(double[][] xs, double[][] ys, int count) {
+        if (xs.length < 3 || xs.length != ys.length)
+            throw new IllegalArgumentException("Polygons Must Have at Least 3 Vertices");
+
+        for (int v = 0; v < xs.length; v++) {
+            if (xs[v].length < count || ys[v].length < count)
+                throw new IllegalArgumentException("Vertex Columns Must Hold at Least " + count + " Values");
+        }
+
+        this.xs = xs;
+        this.ys = ys;
+        this.count = count;
+    }
+
+    /**
+     * Copies the vertices of the given shapes into a new batch. The vertices are
+     * taken in the order given by {@link Positionable#getPosition()}, which for
+     * {@link Triangle}s and {@link Quadrilateral}s is clockwise.
+     *
+     * @param shapes the shapes, which must all have the same number of sides.
+     * @param <S>    the type of the shapes.
+     * @return the batch of polygons.
+     * @throws IllegalArgumentException if the shapes are not all polygons with
+     *                                  the same number of sides.
+     */
+    public static <S extends TwoDShape & Positionable> PolygonBatch of(List<S> shapes) {
+        if (shapes.isEmpty())
+            return new PolygonBatch(new double[3][0], new double[3][0], 0);
+
+        S first = shapes.get(0);
+
+        // A circle reports an unbounded number of sides, and has no vertices.
+        if (first instanceof Circle || first.getPosition().size() != first.numSides())
+            throw new IllegalArgumentException("Shapes Must be Polygons");
+
+        int sides = first.numSides();
+        double[][] xs = new double[sides][shapes.size()];
+        double[][] ys = new double[sides][shapes.size()];
+
+        for (int i = 0; i < shapes.size(); i++) {
+            List<? extends Point> vertices = shapes.get(i).getPosition();
+
+            if (vertices.size() != sides)
+                throw new IllegalArgumentException("All Shapes Must Have " + sides + " Sides");
+
+            for (int v = 0; v < sides; v++) {
+                TwoDPoint vertex = (TwoDPoint) vertices.get(v);
+                xs[v][i] = vertex.getX();
+                ys[v][i] = vertex.getY();
+            }
+        }
+
+        return new PolygonBatch(xs, ys, shapes.size());
+    }
+
+    /**
+     * @return the number of polygons in this batch.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return the number of vertices of each polygon.
+     */
+    public int vertices() {
+        return xs.length;
+    }
+
+    /**
+     * Calculates the area of every polygon with the shoelace formula, i.e., half
+     * the absolute value of the sum of x1*y2 - x2*y1 over all edges. For
+     * triangles and quadrilaterals this gives the same value as their
+     * {@link TwoDShape#area()} method, up to rounding.
+     *
+     * @param out the array to write the results to, or <code>null</code> to
+     *            allocate a new one.
+     * @return the array holding the area of polygon i at index i.
+     */
+    public double[] areas(double[] out) {
+        out = checkOut(out);
+
+        for (int i = 0; i < count; i++)
+            out[i] = 0;
+
+        for (int v = 0; v < xs.length; v++) {
+            double[] x1 = xs[v], y1 = ys[v];
+            double[] x2 = xs[(v + 1) % xs.length], y2 = ys[(v + 1) % ys.length];
+
+            for (int i = 0; i < count; i++)
+                out[i] += x1[i] * y2[i] - x2[i] * y1[i];
+        }
+
+        for (int i = 0; i < count; i++)
+            out[i] = 0.5 * Math.abs(out[i]);
+
+        return out;
+    }
+
+    /**
+     * Calculates the perimeter of every polygon, i.e., the sum of the lengths of
+     * its edges.
+     *
+     * @param out the array to write the results to, or <code>null</code> to
+     *            allocate a new one.
+     * @return the array holding the perimeter of polygon i at index i.
+     */
+    public double[] perimeters(double[] out) {
+        out = checkOut(out);
+
+        for (int i = 0; i < count; i++)
+            out[i] = 0;
+
+        for (int v = 0; v < xs.length; v++) {
+            double[] x1 = xs[v], y1 = ys[v];
+            double[] x2 = xs[(v + 1) % xs.length], y2 = ys[(v + 1) % ys.length];
+
+            for (int i = 0; i < count; i++) {
+                double dx = x2[i] - x1[i];
+                double dy = y2[i] - y1[i];
+                out[i] += Math.sqrt(dx * dx + dy * dy);
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * Calculates the distance from the origin of one vertex of every polygon.
+     *
+     * @param vertex the vertex to measure, e.g., 0 for the root vertex.
+     * @param out    the array to write the results to, or <code>null</code> to
+     *               allocate a new one.
+     * @return the array holding the distance of polygon i at index i.
+     */
+    public double[] distancesFromOrigin(int vertex, double[] out) {
+        out = checkOut(out);
+        double[] x = xs[vertex], y = ys[vertex];
+
+        for (int i = 0; i < count; i++)
+            out[i] = Math.sqrt(x[i] * x[i] + y[i] * y[i]);
+
+        return out;
+    }
+
+    private double[] checkOut(double[] out) {
+        if (out == null)
+            return new double[count];
+
+        if (out.length < count)
+            throw new IllegalArgumentException("Output Array is Too Small");
+
+        return out;
+    }
+}
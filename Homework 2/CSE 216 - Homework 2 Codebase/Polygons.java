@@ -0,0 +1,54 @@
+import java.util.List;
+
+/**
+ * Geometry helpers shared by the shapes that are stored as a list of vertices,
+ * i.e., {@link Triangle} and {@link Quadrilateral}.
+ */
+final class Polygons {
+
+    private Polygons() {
+    }
+
+    /**
+     * @param vertices the vertices of the polygon.
+     * @return the smallest axis-aligned box holding every vertex.
+     */
+    static BoundingBox boundingBox(List<TwoDPoint> vertices) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+        for (TwoDPoint vertex : vertices) {
+            minX = Math.min(minX, vertex.getX());
+            minY = Math.min(minY, vertex.getY());
+            maxX = Math.max(maxX, vertex.getX());
+            maxY = Math.max(maxY, vertex.getY());
+        }
+
+        return new BoundingBox(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Checks whether a point lies inside the polygon formed by the given vertices
+     * taken in order, by counting how many edges a ray going right from the point
+     * crosses. An odd count means the point is inside.
+     *
+     * @param vertices the vertices of the polygon, in clockwise order.
+     * @param x        the x value of the point.
+     * @param y        the y value of the point.
+     * @return <code>true</code> if the point is inside the polygon.
+     */
+    static boolean contains(List<TwoDPoint> vertices, double x, double y) {
+        boolean inside = false;
+
+        for (int i = 0, j = vertices.size() - 1; i < vertices.size(); j = i++) {
+            TwoDPoint a = vertices.get(i);
+            TwoDPoint b = vertices.get(j);
+
+            if ((a.getY() > y) != (b.getY() > y)
+                    && x < (b.getX() - a.getX()) * (y - a.getY()) / (b.getY() - a.getY()) + a.getX())
+                inside = !inside;
+        }
+
+        return inside;
+    }
+}
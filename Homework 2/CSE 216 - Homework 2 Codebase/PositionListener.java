@@ -0,0 +1,14 @@
+/**
+ * A listener that is told whenever an {@link ObservablePositionable} object is
+ * moved.
+ */
+@FunctionalInterface
+public interface PositionListener {
+
+    /**
+     * Called after the position of the specified object has changed.
+     *
+     * @param source the object that was moved.
+     */
+    void positionChanged(Positionable source);
+}
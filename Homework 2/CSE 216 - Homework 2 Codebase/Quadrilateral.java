@@ -1,9 +1,21 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-public class Quadrilateral implements TwoDShape, Positionable {
+public class Quadrilateral implements TwoDShape, ObservablePositionable {
 
     List<TwoDPoint> vertices;
+    private final List<PositionListener> listeners = new ArrayList<>();
+
+    /*
+     * Derived geometry, computed on first use and thrown away whenever the
+     * vertices change through setPosition or snap. NaN and null mean "not yet
+     * computed".
+     */
+    private double area = Double.NaN;
+    private double perimeter = Double.NaN;
+    private BoundingBox boundingBox;
+    private TwoDPoint centroid;
 
     public Quadrilateral(List<TwoDPoint> vertices) {
         if (vertices.size() < 4)
@@ -15,6 +27,15 @@ public class Quadrilateral implements TwoDShape, Positionable {
         this.setPosition(vertices);
     }
 
+    /**
+     * Creates a quadrilateral from four vertices that the caller has already
+     * checked, skipping the {@link #isMember} check. Used by {@link ShapeBatch},
+     * which validates all of its shapes in one pass up front.
+     */
+    Quadrilateral(TwoDPoint a, TwoDPoint b, TwoDPoint c, TwoDPoint d) {
+        this.setPosition(Arrays.asList(a, b, c, d));
+    }
+
     /**
      * Sets the position of this quadrilateral according to the first four elements
      * in the specified list of points. The quadrilateral is formed on the basis of
@@ -43,6 +64,45 @@ public class Quadrilateral implements TwoDShape, Positionable {
         tempList.add((TwoDPoint) points.get(3));
 
         vertices = sortClockwise(tempList);
+        invalidate();
+        firePositionChanged();
+    }
+
+    /**
+     * Throws away the memoized area, perimeter, bounding box and centroid. This is
+     * done automatically by {@link #setPosition} and {@link #snap()}, but must be
+     * called by hand if a vertex of this quadrilateral is changed through
+     * {@link TwoDPoint#setX} or {@link TwoDPoint#setY}.
+     */
+    public void invalidate() {
+        area = Double.NaN;
+        perimeter = Double.NaN;
+        boundingBox = null;
+        centroid = null;
+    }
+
+    /**
+     * Registers a listener to be told whenever this quadrilateral is moved.
+     *
+     * @param listener the listener to add.
+     */
+    @Override
+    public void addPositionListener(PositionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener to remove.
+     */
+    @Override
+    public void removePositionListener(PositionListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void firePositionChanged() {
+        for (PositionListener listener : listeners) {
+            listener.positionChanged(this);
+        }
     }
 
     /**
@@ -51,7 +111,7 @@ public class Quadrilateral implements TwoDShape, Positionable {
      * @param points the points to sort in clockwise order.
      * @return the List sorted in clockwise order.
      */
-    private List<TwoDPoint> sortClockwise(List<TwoDPoint> points) {
+    private static List<TwoDPoint> sortClockwise(List<TwoDPoint> points) {
 
         ArrayList<TwoDPoint> returnList = new ArrayList<>();
 
@@ -173,56 +233,36 @@ public class Quadrilateral implements TwoDShape, Positionable {
         }
 
         /*
-         * We can use the Triangle class's isMember to help us here. All quadrilaterals
-         * can be split into 2 triangles. If we are given a quadrilateral ABCD, the 4
-         * triangles formed are ABC, ACD, BCD, ABD. As long as those 2 triangles are
-         * valid, then our quadrilateral is valid. (Essentially we're testing if any 3
-         * points are in a straight line)
+         * All quadrilaterals can be split into 2 triangles. If we are given a
+         * quadrilateral ABCD, the 4 triangles formed are ABC, ACD, BCD, ABD. As long
+         * as those triangles are valid, then our quadrilateral is valid. (Essentially
+         * we're testing if any 3 points are in a straight line)
          */
 
-        ArrayList<TwoDPoint> temp = new ArrayList<>();
-        temp.add((TwoDPoint) vertices.get(0));
-        temp.add((TwoDPoint) vertices.get(1));
-        temp.add((TwoDPoint) vertices.get(2));
-        temp.add((TwoDPoint) vertices.get(3));
-
-        List<TwoDPoint> castedVertices = sortClockwise(temp);
-
-        ArrayList<TwoDPoint> triangle = new ArrayList<>();
-
-        try{
-            // Triangle ABC
-            triangle.add(castedVertices.get(0));
-            triangle.add(castedVertices.get(1));
-            triangle.add(castedVertices.get(2));
-
-            new Triangle(triangle);
-
-            // Triangle ACD
-            triangle.set(0, castedVertices.get(0));
-            triangle.set(1, castedVertices.get(2));
-            triangle.set(2, castedVertices.get(3));
-
-            new Triangle(triangle);
-
-            // Triangle BCD
-            triangle.set(0, castedVertices.get(1));
-            triangle.set(1, castedVertices.get(2));
-            triangle.set(2, castedVertices.get(3));
-
-            new Triangle(triangle);
-
-            // Triangle ABD
-            triangle.set(0, castedVertices.get(0));
-            triangle.set(1, castedVertices.get(1));
-            triangle.set(2, castedVertices.get(3));
-
-            new Triangle(triangle);
-        } catch (Exception e) {
-            return false;
-        }
+        return isValid((TwoDPoint) vertices.get(0), (TwoDPoint) vertices.get(1), (TwoDPoint) vertices.get(2),
+                (TwoDPoint) vertices.get(3));
+    }
 
-        return true;
+    /**
+     * Checks whether four points form a valid quadrilateral, i.e., whether the
+     * four triangles formed by any three of them, taken in clockwise order, are
+     * all valid. Shared by {@link #isMember} and {@link ShapeBatch}.
+     *
+     * @param a the first vertex.
+     * @param b the second vertex.
+     * @param c the third vertex.
+     * @param d the fourth vertex.
+     * @return <code>true</code> if no three of the points are in a straight line.
+     */
+    static boolean isValid(TwoDPoint a, TwoDPoint b, TwoDPoint c, TwoDPoint d) {
+        List<TwoDPoint> castedVertices = sortClockwise(Arrays.asList(a, b, c, d));
+        a = castedVertices.get(0);
+        b = castedVertices.get(1);
+        c = castedVertices.get(2);
+        d = castedVertices.get(3);
+
+        return Triangle.isValid(a, b, c) && Triangle.isValid(a, c, d) && Triangle.isValid(b, c, d)
+                && Triangle.isValid(a, b, d);
     }
 
     /**
@@ -248,6 +288,8 @@ public class Quadrilateral implements TwoDShape, Positionable {
 
         if (isMember(snapped)) {
             vertices = snapped;
+            invalidate();
+            firePositionChanged();
         }
     }
 
@@ -255,25 +297,24 @@ public class Quadrilateral implements TwoDShape, Positionable {
      * @return the area of this quadrilateral
      */
     public double area() {
+        if (Double.isNaN(area)) {
+
+            /*
+             * We will again split this quadrilateral into triangles ABC and ACD, and add
+             * up the area of these 2 triangles.
+             */
+            area = triangleArea(vertices.get(0), vertices.get(1), vertices.get(2))
+                    + triangleArea(vertices.get(0), vertices.get(2), vertices.get(3));
+        }
 
-        /*
-         * We will again split this quadrilateral into triangles and find the area of
-         * each triangle. We will then add up the area of these 2 triangles.
-         */
-
-        // Triangle ABC
-        ArrayList<TwoDPoint> triangle1 = new ArrayList<>();
-        triangle1.add(vertices.get(0));
-        triangle1.add(vertices.get(1));
-        triangle1.add(vertices.get(2));
+        return area;
+    }
 
-        // Triangle ACD
-        ArrayList<TwoDPoint> triangle2 = new ArrayList<>();
-        triangle2.add(vertices.get(0));
-        triangle2.add(vertices.get(2));
-        triangle2.add(vertices.get(3));
+    private static double triangleArea(TwoDPoint a, TwoDPoint b, TwoDPoint c) {
+        double term1 = (b.getX() - a.getX()) * (c.getY() - a.getY());
+        double term2 = (c.getX() - a.getX()) * (b.getY() - a.getY());
 
-        return new Triangle(triangle1).area() + new Triangle(triangle2).area();
+        return 0.5 * Math.abs(term2 - term1);
     }
 
     /**
@@ -281,13 +322,57 @@ public class Quadrilateral implements TwoDShape, Positionable {
      *         quadrilateral
      */
     public double perimeter() {
+        if (Double.isNaN(perimeter)) {
+            double side1 = TwoDPoint.distance(vertices.get(0), vertices.get(1));
+            double side2 = TwoDPoint.distance(vertices.get(1), vertices.get(2));
+            double side3 = TwoDPoint.distance(vertices.get(2), vertices.get(3));
+            double side4 = TwoDPoint.distance(vertices.get(3), vertices.get(0));
+
+            perimeter = side1 + side2 + side3 + side4;
+        }
 
-        double side1 = TwoDPoint.distance(vertices.get(0), vertices.get(1));
-        double side2 = TwoDPoint.distance(vertices.get(1), vertices.get(2));
-        double side3 = TwoDPoint.distance(vertices.get(2), vertices.get(3));
-        double side4 = TwoDPoint.distance(vertices.get(3), vertices.get(0));
+        return perimeter;
+    }
 
-        return side1 + side2 + side3 + side4;
+    /**
+     * @return the smallest axis-aligned box holding every vertex of this
+     *         quadrilateral.
+     */
+    @Override
+    public BoundingBox boundingBox() {
+        if (boundingBox == null)
+            boundingBox = Polygons.boundingBox(vertices);
+
+        return boundingBox;
+    }
+
+    /**
+     * @return the centroid of this quadrilateral, i.e., the average of the
+     *         centroids of triangles ABC and ACD, weighted by their areas.
+     */
+    public TwoDPoint centroid() {
+        if (centroid == null) {
+            TwoDPoint a = vertices.get(0), b = vertices.get(1), c = vertices.get(2), d = vertices.get(3);
+            double area1 = triangleArea(a, b, c);
+            double area2 = triangleArea(a, c, d);
+
+            double x = (area1 * (a.getX() + b.getX() + c.getX()) + area2 * (a.getX() + c.getX() + d.getX()))
+                    / (3 * (area1 + area2));
+            double y = (area1 * (a.getY() + b.getY() + c.getY()) + area2 * (a.getY() + c.getY() + d.getY()))
+                    / (3 * (area1 + area2));
+
+            centroid = new TwoDPoint(x, y);
+        }
+
+        return centroid.clone();
+    }
+
+    /**
+     * @return <code>true</code> if (x, y) lies inside this quadrilateral.
+     */
+    @Override
+    public boolean contains(double x, double y) {
+        return Polygons.contains(vertices, x, y);
     }
 
     /**
@@ -300,6 +385,6 @@ public class Quadrilateral implements TwoDShape, Positionable {
 
     @Override
     public int compareTo(TwoDShape o) {
-        return ((Double) this.area()).compareTo(o.area());
+        return Double.compare(area(), o.area());
     }
 }
@@ -0,0 +1,198 @@
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds many shapes at once from a flat array of doubles. The shapes are laid
+ * out back to back, and the kind of each shape decides how many doubles it
+ * takes up:
+ *
+ * <ul>
+ * <li>{@link #CIRCLE}: <code>x, y, r</code></li>
+ * <li>{@link #TRIANGLE}: <code>x1, y1, x2, y2, x3, y3</code></li>
+ * <li>{@link #QUADRILATERAL}: <code>x1, y1, x2, y2, x3, y3, x4, y4</code></li>
+ * </ul>
+ *
+ * Every shape is checked with the same tests as the public constructors, i.e.,
+ * {@link Triangle#isValid}, {@link Quadrilateral#isValid} and a non-negative
+ * radius, so a batch accepts exactly the shapes those constructors accept. If
+ * asked for, quadrilaterals must also be convex. Shapes that fail are not built
+ * and are marked in a rejection bitmap instead, so a batch never throws because
+ * of a bad shape.
+ */
+public class ShapeBatch {
+
+    public static final byte CIRCLE = 1;
+    public static final byte TRIANGLE = 3;
+    public static final byte QUADRILATERAL = 4;
+
+    private final List<TwoDShape> shapes;
+    private final BitSet rejected;
+    private final int count;
+
+    private ShapeBatch(List<TwoDShape> shapes, BitSet rejected, int count) {
+        this.shapes = Collections.unmodifiableList(shapes);
+        this.rejected = rejected;
+        this.count = count;
+    }
+
+    /**
+     * @return the valid shapes, in the order they were given.
+     */
+    public List<TwoDShape> shapes() {
+        return shapes;
+    }
+
+    /**
+     * @return a bitmap where bit i is set if shape i was rejected.
+     */
+    public BitSet rejected() {
+        return (BitSet) rejected.clone();
+    }
+
+    /**
+     * @param index the index of the shape in the input.
+     * @return <code>true</code> if the shape at that index was rejected.
+     */
+    public boolean isRejected(int index) {
+        return rejected.get(index);
+    }
+
+    /**
+     * @return the number of shapes in the input, valid or not.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @param kind the kind of shape.
+     * @return the number of doubles a shape of that kind takes up.
+     * @throws IllegalArgumentException if the kind is unknown.
+     */
+    public static int width(byte kind) {
+        switch (kind) {
+            case CIRCLE:
+                return 3;
+            case TRIANGLE:
+                return 6;
+            case QUADRILATERAL:
+                return 8;
+            default:
+                throw new IllegalArgumentException("Unknown Shape Kind " + kind);
+        }
+    }
+
+    /**
+     * Builds the shapes described by the given coordinates.
+     *
+     * @param coordinates the shapes, laid out back to back.
+     * @param kinds       the kind of each shape.
+     * @return the batch of valid shapes and the rejection bitmap.
+     * @throws IllegalArgumentException if a kind is unknown, or the number of
+     *                                  coordinates does not match the kinds.
+     */
+    public static ShapeBatch of(double[] coordinates, byte[] kinds) {
+        return of(DoubleBuffer.wrap(coordinates), kinds, false);
+    }
+
+    /**
+     * Builds the shapes described by the remaining doubles of the given buffer.
+     * The position of the buffer is left unchanged.
+     *
+     * @param coordinates   the shapes, laid out back to back.
+     * @param kinds         the kind of each shape.
+     * @param requireConvex whether quadrilaterals that are not convex are
+     *                      rejected.
+     * @return the batch of valid shapes and the rejection bitmap.
+     * @throws IllegalArgumentException if a kind is unknown, or the number of
+     *                                  coordinates does not match the kinds.
+     */
+    public static ShapeBatch of(DoubleBuffer coordinates, byte[] kinds, boolean requireConvex) {
+        int needed = 0;
+        for (byte kind : kinds)
+            needed += width(kind);
+
+        if (needed != coordinates.remaining())
+            throw new IllegalArgumentException("Expected " + needed + " Coordinates but Found " + coordinates.remaining());
+
+        List<TwoDShape> shapes = new ArrayList<>(kinds.length);
+        BitSet rejected = new BitSet(kinds.length);
+        double[] v = new double[8];
+        int offset = coordinates.position();
+
+        for (int i = 0; i < kinds.length; i++) {
+            int width = width(kinds[i]);
+            coordinates.get(offset, v, 0, width);
+            offset += width;
+
+            TwoDShape shape = null;
+
+            switch (kinds[i]) {
+                case CIRCLE:
+                    if (!(v[2] < 0))
+                        shape = new Circle(v[0], v[1], v[2]);
+                    break;
+                case TRIANGLE: {
+                    TwoDPoint a = new TwoDPoint(v[0], v[1]), b = new TwoDPoint(v[2], v[3]);
+                    TwoDPoint c = new TwoDPoint(v[4], v[5]);
+
+                    if (Triangle.isValid(a, b, c))
+                        shape = new Triangle(a, b, c);
+                    break;
+                }
+                case QUADRILATERAL: {
+                    TwoDPoint a = new TwoDPoint(v[0], v[1]), b = new TwoDPoint(v[2], v[3]);
+                    TwoDPoint c = new TwoDPoint(v[4], v[5]), d = new TwoDPoint(v[6], v[7]);
+
+                    if (Quadrilateral.isValid(a, b, c, d) && (!requireConvex || isConvex(v)))
+                        shape = new Quadrilateral(a, b, c, d);
+                    break;
+                }
+            }
+
+            if (shape == null)
+                rejected.set(i);
+            else
+                shapes.add(shape);
+        }
+
+        return new ShapeBatch(shapes, rejected, kinds.length);
+    }
+
+    /**
+     * A valid quadrilateral is convex if no vertex lies inside the triangle formed
+     * by the other three.
+     */
+    static boolean isConvex(double[] v) {
+        double abc = cross(v, 0, 1, 2), abd = cross(v, 0, 1, 3);
+        double acd = cross(v, 0, 2, 3), bcd = cross(v, 1, 2, 3);
+
+        /*
+         * Vertex D is inside triangle ABC if it is on the same side of AB, BC and CA
+         * as the third vertex, and so on for the other three vertices. The signs
+         * below come from rewriting each of those tests in terms of the four cross
+         * products above.
+         */
+        boolean dInside = sameSign(abd, abc) & sameSign(bcd, abc) & sameSign(-acd, abc);
+        boolean cInside = sameSign(abc, abd) & sameSign(-bcd, abd) & sameSign(acd, abd);
+        boolean bInside = sameSign(-abc, acd) & sameSign(bcd, acd) & sameSign(abd, acd);
+        boolean aInside = sameSign(abc, bcd) & sameSign(acd, bcd) & sameSign(-abd, bcd);
+
+        return !(aInside | bInside | cInside | dInside);
+    }
+
+    /**
+     * @return twice the signed area of the triangle formed by vertices i, j and k.
+     */
+    private static double cross(double[] v, int i, int j, int k) {
+        return (v[2 * j] - v[2 * i]) * (v[2 * k + 1] - v[2 * i + 1])
+                - (v[2 * j + 1] - v[2 * i + 1]) * (v[2 * k] - v[2 * i]);
+    }
+
+    private static boolean sameSign(double a, double b) {
+        return (a > 0) == (b > 0);
+    }
+}
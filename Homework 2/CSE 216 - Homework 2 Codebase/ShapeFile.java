@@ -0,0 +1,297 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A read-only, memory-mapped file of points and shapes, as written by
+ * {@link ShapeFileWriter}. Opening a file only maps it into memory and reads its
+ * header; records are decoded straight from the mapped bytes when asked for, so
+ * even very large files open in constant time.
+ *
+ * The format is little-endian throughout:
+ *
+ * <pre>
+ * header:  int magic, int version, long record count, long index offset
+ * records: byte tag, followed by the doubles of the record
+ *          (TWO_D_POINT: x, y; THREE_D_POINT: x, y, z; CIRCLE: x, y, r;
+ *           TRIANGLE: 3 vertices; QUADRILATERAL: 4 vertices, clockwise)
+ * index:   one long per record, giving the offset of the record
+ * </pre>
+ */
+public class ShapeFile implements Closeable {
+
+    static final int MAGIC = 0x53485031; // "SHP1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+
+    public static final byte TWO_D_POINT = 1;
+    public static final byte THREE_D_POINT = 2;
+    public static final byte CIRCLE = 3;
+    public static final byte TRIANGLE = 4;
+    public static final byte QUADRILATERAL = 5;
+
+    /*
+     * A single MappedByteBuffer cannot be larger than 2GB, so the file is mapped
+     * in chunks. Each chunk overlaps the next by the size of the largest record,
+     * so that any record starting in a chunk can be read from it in one piece.
+     */
+    private static final long CHUNK_SIZE = 1L << 30;
+    private static final int MAX_RECORD_SIZE = 1 + 8 * Double.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long count;
+    private final long indexOffset;
+
+    private ShapeFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        long size = channel.size();
+        if (size < HEADER_SIZE)
+            throw new IOException("File is Too Small to be a Shape File");
+
+        chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+        for (int i = 0; i < chunks.length; i++) {
+            long start = i * CHUNK_SIZE;
+            long length = Math.min(CHUNK_SIZE + MAX_RECORD_SIZE, size - start);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        if (chunks[0].getInt(0) != MAGIC)
+            throw new IOException("Not a Shape File");
+        if (chunks[0].getInt(4) != VERSION)
+            throw new IOException("Unsupported Shape File Version " + chunks[0].getInt(4));
+
+        count = chunks[0].getLong(8);
+        indexOffset = chunks[0].getLong(16);
+
+        if (count < 0 || indexOffset < HEADER_SIZE || indexOffset + count * Long.BYTES > size)
+            throw new IOException("Corrupt Shape File Header");
+    }
+
+    /**
+     * Opens and maps the given file.
+     *
+     * @param path the file to open.
+     * @return the opened file.
+     * @throws IOException if the file cannot be read, or is not a shape file.
+     */
+    public static ShapeFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            return new ShapeFile(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of records in this file.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @param index the index of the record.
+     * @return the tag giving the type of the record.
+     */
+    public byte tag(long index) {
+        return getByte(offset(index));
+    }
+
+    /**
+     * @param index the index of the record.
+     * @return <code>true</code> if the record is a {@link TwoDShape}.
+     */
+    public boolean isShape(long index) {
+        byte tag = tag(index);
+        return tag == CIRCLE || tag == TRIANGLE || tag == QUADRILATERAL;
+    }
+
+    /**
+     * Returns the point stored in a {@link #TWO_D_POINT} or
+     * {@link #THREE_D_POINT} record.
+     *
+     * @param index the index of the record.
+     * @return the point.
+     * @throws IllegalArgumentException if the record is not a point.
+     */
+    public Point point(long index) {
+        long offset = offset(index);
+
+        switch (getByte(offset)) {
+            case TWO_D_POINT:
+                return new TwoDPoint(getDouble(offset + 1), getDouble(offset + 9));
+            case THREE_D_POINT:
+                return new ThreeDPoint(getDouble(offset + 1), getDouble(offset + 9), getDouble(offset + 17));
+            default:
+                throw new IllegalArgumentException("Record " + index + " is not a Point");
+        }
+    }
+
+    /**
+     * Returns a lazy view of the shape stored in a {@link #CIRCLE},
+     * {@link #TRIANGLE} or {@link #QUADRILATERAL} record. The view reads the
+     * bytes of the record only when one of its methods is called.
+     *
+     * @param index the index of the record.
+     * @return the view of the shape.
+     * @throws IllegalArgumentException if the record is not a shape.
+     */
+    public TwoDShape shape(long index) {
+        if (!isShape(index))
+            throw new IllegalArgumentException("Record " + index + " is not a Shape");
+
+        return new MappedShape(offset(index));
+    }
+
+    /**
+     * Closes the file. Views handed out before must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long offset(long index) {
+        if (index < 0 || index >= count)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for count " + count);
+
+        return getLong(indexOffset + index * Long.BYTES);
+    }
+
+    private byte getByte(long position) {
+        return chunks[(int) (position / CHUNK_SIZE)].get((int) (position % CHUNK_SIZE));
+    }
+
+    private long getLong(long position) {
+        return chunks[(int) (position / CHUNK_SIZE)].getLong((int) (position % CHUNK_SIZE));
+    }
+
+    private double getDouble(long position) {
+        return chunks[(int) (position / CHUNK_SIZE)].getDouble((int) (position % CHUNK_SIZE));
+    }
+
+    /**
+     * A {@link TwoDShape} backed by a record of the mapped file. The number of
+     * sides, the root, the bounding box and the area of a circle are read straight
+     * from the record; everything else is handed to a real shape, which is built
+     * the first time it is needed.
+     */
+    private class MappedShape implements TwoDShape {
+
+        private final long offset;
+        private TwoDShape shape;
+
+        MappedShape(long offset) {
+            this.offset = offset;
+        }
+
+        private byte tag() {
+            return getByte(offset);
+        }
+
+        private double value(int i) {
+            return getDouble(offset + 1 + (long) i * Double.BYTES);
+        }
+
+        private TwoDShape shape() {
+            if (shape == null) {
+                switch (tag()) {
+                    case CIRCLE:
+                        shape = new Circle(value(0), value(1), value(2));
+                        break;
+                    case TRIANGLE:
+                        shape = new Triangle(new TwoDPoint(value(0), value(1)), new TwoDPoint(value(2), value(3)),
+                                new TwoDPoint(value(4), value(5)));
+                        break;
+                    default:
+                        shape = new Quadrilateral(new TwoDPoint(value(0), value(1)),
+                                new TwoDPoint(value(2), value(3)), new TwoDPoint(value(4), value(5)),
+                                new TwoDPoint(value(6), value(7)));
+                }
+            }
+
+            return shape;
+        }
+
+        @Override
+        public int numSides() {
+            switch (tag()) {
+                case CIRCLE:
+                    return (int) Double.POSITIVE_INFINITY;
+                case TRIANGLE:
+                    return 3;
+                default:
+                    return 4;
+            }
+        }
+
+        @Override
+        public boolean isMember(List<? extends Point> vertices) {
+            return shape().isMember(vertices);
+        }
+
+        @Override
+        public double area() {
+            if (tag() == CIRCLE)
+                return Math.PI * value(2) * value(2);
+
+            return shape().area();
+        }
+
+        /**
+         * @return the first vertex of the record, which is the center of a circle
+         *         and the left-most vertex of a polygon.
+         */
+        @Override
+        public TwoDPoint getRoot() {
+            return new TwoDPoint(value(0), value(1));
+        }
+
+        @Override
+        public BoundingBox boundingBox() {
+            if (tag() == CIRCLE) {
+                double r = value(2);
+                return new BoundingBox(value(0) - r, value(1) - r, value(0) + r, value(1) + r);
+            }
+
+            int vertices = numSides();
+            double minX = value(0), maxX = minX, minY = value(1), maxY = minY;
+
+            for (int i = 1; i < vertices; i++) {
+                double x = value(2 * i), y = value(2 * i + 1);
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+            }
+
+            return new BoundingBox(minX, minY, maxX, maxY);
+        }
+
+        @Override
+        public boolean contains(double x, double y) {
+            return shape().contains(x, y);
+        }
+
+        @Override
+        public String toString() {
+            return shape().toString();
+        }
+
+        @Override
+        public int compareTo(TwoDShape o) {
+            return Double.compare(area(), o.area());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes points and shapes to a file in the binary format read by
+ * {@link ShapeFile}. Records are buffered and written in large blocks; the
+ * record index and the header are written when the writer is closed, so a file
+ * is only readable after {@link #close()}. The index is kept in an array until
+ * then, so one file holds at most {@value #MAX_RECORDS} records.
+ */
+public class ShapeFileWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // The largest array of offsets that can safely be allocated.
+    static final int MAX_RECORDS = Integer.MAX_VALUE - 8;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    private long[] offsets = new long[1024];
+    private long count;
+    private long position = ShapeFile.HEADER_SIZE;
+    private boolean closed;
+
+    /**
+     * Creates a writer for the given file, replacing whatever was there before.
+     *
+     * @param path the file to write to.
+     * @throws IOException if the file cannot be opened.
+     */
+    public ShapeFileWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.channel.position(ShapeFile.HEADER_SIZE);
+    }
+
+    public void write(TwoDPoint point) throws IOException {
+        record(ShapeFile.TWO_D_POINT, point.getX(), point.getY());
+    }
+
+    public void write(ThreeDPoint point) throws IOException {
+        record(ShapeFile.THREE_D_POINT, point.getX(), point.getY(), point.getZ());
+    }
+
+    public void write(Circle circle) throws IOException {
+        record(ShapeFile.CIRCLE, circle.getRoot().getX(), circle.getRoot().getY(), circle.getRadius());
+    }
+
+    public void write(Triangle triangle) throws IOException {
+        record(ShapeFile.TRIANGLE, vertices(triangle.getPosition()));
+    }
+
+    public void write(Quadrilateral quadrilateral) throws IOException {
+        record(ShapeFile.QUADRILATERAL, vertices(quadrilateral.getPosition()));
+    }
+
+    /**
+     * Writes a shape of any of the supported types.
+     *
+     * @param shape the shape to write.
+     * @throws IllegalArgumentException if the type of the shape is not supported.
+     * @throws IOException              if the file cannot be written to, or
+     *                                  already holds {@value #MAX_RECORDS}
+     *                                  records.
+     */
+    public void write(TwoDShape shape) throws IOException {
+        if (shape instanceof Circle)
+            write((Circle) shape);
+        else if (shape instanceof Triangle)
+            write((Triangle) shape);
+        else if (shape instanceof Quadrilateral)
+            write((Quadrilateral) shape);
+        else
+            throw new IllegalArgumentException("Unsupported Shape Type " + shape.getClass().getName());
+    }
+
+    /**
+     * @return the number of records written so far.
+     */
+    public long count() {
+        return count;
+    }
+
+    private static double[] vertices(List<? extends Point> points) {
+        double[] values = new double[points.size() * 2];
+
+        for (int i = 0; i < points.size(); i++) {
+            TwoDPoint point = (TwoDPoint) points.get(i);
+            values[2 * i] = point.getX();
+            values[2 * i + 1] = point.getY();
+        }
+
+        return values;
+    }
+
+    private void record(byte tag, double... values) throws IOException {
+        if (closed)
+            throw new IOException("Writer is Closed");
+
+        if (count == MAX_RECORDS)
+            throw new IOException("Writer is Full: a File Holds at Most " + MAX_RECORDS + " Records");
+
+        if (count == offsets.length)
+            offsets = Arrays.copyOf(offsets, (int) Math.min(MAX_RECORDS, 2L * offsets.length));
+
+        offsets[(int) count++] = position;
+
+        int size = 1 + values.length * Double.BYTES;
+        if (buffer.remaining() < size)
+            flush();
+
+        buffer.put(tag);
+        for (double value : values)
+            buffer.putDouble(value);
+
+        position += size;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Writes the record index and the header, and closes the file.
+     *
+     * @throws IOException if the file cannot be written to.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+
+        try {
+            long indexOffset = position;
+
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < Long.BYTES)
+                    flush();
+                buffer.putLong(offsets[i]);
+            }
+
+            flush();
+
+            buffer.putInt(ShapeFile.MAGIC);
+            buffer.putInt(ShapeFile.VERSION);
+            buffer.putLong(count);
+            buffer.putLong(indexOffset);
+            buffer.flip();
+
+            while (buffer.hasRemaining())
+                channel.write(buffer, buffer.position());
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Sorting and selection of shapes on a <code>double</code> key such as their
+ * area. Unlike {@link java.util.Collections#sort}, which calls
+ * {@link TwoDShape#compareTo} (and hence {@link TwoDShape#area()} twice) on
+ * every comparison, the key of each shape is computed exactly once into a
+ * primitive array, and only that array is looked at while sorting.
+ *
+ * All sorts are stable, i.e., shapes with equal keys keep their relative order,
+ * so sorting by area gives the same result as <code>Collections.sort</code>.
+ */
+public class ShapeSorter {
+
+    // Below this many elements, a range is sorted on the current thread.
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+    // Below this many elements, a range is insertion sorted.
+    private static final int INSERTION_THRESHOLD = 32;
+
+    private ShapeSorter() {
+    }
+
+    /**
+     * Sorts the specified list of shapes in increasing order of area, which is
+     * the natural ordering of {@link TwoDShape}s.
+     *
+     * @param shapes the list to sort in place.
+     * @param <S>    the type of the shapes.
+     */
+    public static <S extends TwoDShape> void sortByArea(List<S> shapes) {
+        sort(shapes, TwoDShape::area);
+    }
+
+    /**
+     * Sorts the specified list in increasing order of the given key. The key of
+     * each element is computed once, and large lists are sorted in parallel with
+     * a fork-join merge sort.
+     *
+     * @param items the list to sort in place.
+     * @param key   the function giving the key of an element.
+     * @param <T>   the type of the elements.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(List<T> items, ToDoubleFunction<? super T> key) {
+        // Work on an array and write back through a ListIterator, like
+        // Collections.sort, so that linked lists are not indexed into.
+        Object[] array = items.toArray();
+        int n = array.length;
+        double[] keys = new double[n];
+        int[] order = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            keys[i] = key.applyAsDouble((T) array[i]);
+            order[i] = i;
+        }
+
+        sortIndices(keys, order);
+
+        ListIterator<T> it = items.listIterator();
+        for (int i = 0; i < n; i++) {
+            it.next();
+            it.set((T) array[order[i]]);
+        }
+    }
+
+    /**
+     * Stably sorts an array of indices into <code>keys</code> so that the keys
+     * they point at are in increasing order, as given by
+     * {@link Double#compare}.
+     *
+     * @param keys  the keys.
+     * @param order the indices to sort in place.
+     */
+    static void sortIndices(double[] keys, int[] order) {
+        int[] buffer = new int[order.length];
+
+        if (order.length < SEQUENTIAL_THRESHOLD)
+            mergeSort(keys, order, buffer, 0, order.length);
+        else
+            ForkJoinPool.commonPool().invoke(new MergeSortTask(keys, order, buffer, 0, order.length));
+    }
+
+    /**
+     * Returns the <code>k</code> shapes of least area, in increasing order of
+     * area. Shapes are looked at one at a time, and only the best
+     * <code>k</code> seen so far are kept, so this takes O(N log k) time and
+     * O(k) space instead of sorting everything.
+     *
+     * @param shapes the shapes to select from.
+     * @param k      the number of shapes to select.
+     * @param <S>    the type of the shapes.
+     * @return the <code>k</code> least shapes, where ties are broken in favour of
+     *         the shape encountered earlier.
+     */
+    public static <S extends TwoDShape> List<S> leastByArea(Iterable<? extends S> shapes, int k) {
+        return least(shapes, k, TwoDShape::area);
+    }
+
+    /**
+     * Returns the <code>k</code> elements with the least keys, in increasing order
+     * of key.
+     *
+     * @param items the elements to select from.
+     * @param k     the number of elements to select.
+     * @param key   the function giving the key of an element.
+     * @param <T>   the type of the elements.
+     * @return the <code>k</code> least elements, where ties are broken in favour
+     *         of the element encountered earlier.
+     */
+    public static <T> List<T> least(Iterable<? extends T> items, int k, ToDoubleFunction<? super T> key) {
+        if (k < 0)
+            throw new IllegalArgumentException("k Must not be Negative");
+
+        /*
+         * A max-heap of the best k elements seen so far, ordered by key and then by
+         * position, so that the root is always the first element to be evicted.
+         * It starts out no larger than the input, and grows up to k as needed.
+         */
+        int capacity = Math.min(k, items instanceof Collection ? ((Collection<?>) items).size() : 16);
+        double[] heapKeys = new double[capacity];
+        long[] heapSeqs = new long[capacity];
+        Object[] heapItems = new Object[capacity];
+        int size = 0;
+        long seq = 0;
+
+        for (T item : items) {
+            double itemKey = key.applyAsDouble(item);
+
+            if (size < k) {
+                if (size == heapKeys.length) {
+                    capacity = (int) Math.min(k, 2L * size + 1);
+                    heapKeys = Arrays.copyOf(heapKeys, capacity);
+                    heapSeqs = Arrays.copyOf(heapSeqs, capacity);
+                    heapItems = Arrays.copyOf(heapItems, capacity);
+                }
+
+                heapKeys[size] = itemKey;
+                heapSeqs[size] = seq;
+                heapItems[size] = item;
+                siftUp(heapKeys, heapSeqs, heapItems, size++);
+            } else if (k > 0 && Double.compare(itemKey, heapKeys[0]) < 0) {
+                heapKeys[0] = itemKey;
+                heapSeqs[0] = seq;
+                heapItems[0] = item;
+                siftDown(heapKeys, heapSeqs, heapItems, size);
+            }
+
+            seq++;
+        }
+
+        // Pop the heap from the back so the result comes out in increasing order.
+        Object[] result = new Object[size];
+        for (int end = size - 1; end >= 0; end--) {
+            result[end] = heapItems[0];
+            swap(heapKeys, heapSeqs, heapItems, 0, end);
+            siftDown(heapKeys, heapSeqs, heapItems, end);
+        }
+
+        List<T> list = new ArrayList<>(size);
+        for (Object item : result) {
+            @SuppressWarnings("unchecked")
+            T t = (T) item;
+            list.add(t);
+        }
+
+        return list;
+    }
+
+    /**
+     * @param shapes the shapes to select from.
+     * @param <S>    the type of the shapes.
+     * @return the shape of least area, or <code>null</code> if there are none.
+     *         Ties are broken in favour of the shape encountered earlier.
+     */
+    public static <S extends TwoDShape> S leastByArea(Iterable<? extends S> shapes) {
+        S least = null;
+        double leastArea = 0;
+
+        for (S shape : shapes) {
+            double area = shape.area();
+
+            if (least == null || Double.compare(area, leastArea) < 0) {
+                least = shape;
+                leastArea = area;
+            }
+        }
+
+        return least;
+    }
+
+    private static boolean heapAbove(double[] keys, long[] seqs, int i, int j) {
+        int c = Double.compare(keys[i], keys[j]);
+        return c > 0 || (c == 0 && seqs[i] > seqs[j]);
+    }
+
+    private static void siftUp(double[] keys, long[] seqs, Object[] items, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+
+            if (!heapAbove(keys, seqs, i, parent))
+                break;
+
+            swap(keys, seqs, items, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(double[] keys, long[] seqs, Object[] items, int size) {
+        int i = 0;
+
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1, right = left + 1;
+
+            if (left < size && heapAbove(keys, seqs, left, largest))
+                largest = left;
+            if (right < size && heapAbove(keys, seqs, right, largest))
+                largest = right;
+
+            if (largest == i)
+                return;
+
+            swap(keys, seqs, items, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(double[] keys, long[] seqs, Object[] items, int i, int j) {
+        double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+
+        long seq = seqs[i];
+        seqs[i] = seqs[j];
+        seqs[j] = seq;
+
+        Object item = items[i];
+        items[i] = items[j];
+        items[j] = item;
+    }
+
+    private static void mergeSort(double[] keys, int[] order, int[] buffer, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(keys, order, from, to);
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        mergeSort(keys, order, buffer, from, mid);
+        mergeSort(keys, order, buffer, mid, to);
+        merge(keys, order, buffer, from, mid, to);
+    }
+
+    private static void insertionSort(double[] keys, int[] order, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int index = order[i];
+            double key = keys[index];
+            int j = i - 1;
+
+            while (j >= from && Double.compare(keys[order[j]], key) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+
+            order[j + 1] = index;
+        }
+    }
+
+    private static void merge(double[] keys, int[] order, int[] buffer, int from, int mid, int to) {
+        // Already in order, nothing to merge.
+        if (Double.compare(keys[order[mid - 1]], keys[order[mid]]) <= 0)
+            return;
+
+        System.arraycopy(order, from, buffer, from, to - from);
+
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to)
+            order[k++] = Double.compare(keys[buffer[j]], keys[buffer[i]]) < 0 ? buffer[j++] : buffer[i++];
+
+        while (i < mid)
+            order[k++] = buffer[i++];
+        while (j < to)
+            order[k++] = buffer[j++];
+    }
+
+    /**
+     * Sorts both halves of a range in parallel and then merges them.
+     */
+    private static class MergeSortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double[] keys;
+        private final int[] order, buffer;
+        private final int from, to;
+
+        MergeSortTask(double[] keys, int[] order, int[] buffer, int from, int to) {
+            this.keys = keys;
+            this.order = order;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < SEQUENTIAL_THRESHOLD) {
+                mergeSort(keys, order, buffer, from, to);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new MergeSortTask(keys, order, buffer, from, mid),
+                    new MergeSortTask(keys, order, buffer, mid, to));
+            merge(keys, order, buffer, from, mid, to);
+        }
+    }
+}
@@ -0,0 +1,539 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * An R-tree over objects that take up a region of the two-dimensional x-y
+ * plane. Every entry is stored under its {@link BoundingBox}, and entries whose
+ * boxes are close together are grouped under the same node, so that range,
+ * nearest-neighbour and point-in-shape queries only have to look at a
+ * logarithmic number of nodes instead of scanning every entry.
+ *
+ * Entries that are {@link ObservablePositionable} are re-indexed automatically
+ * whenever they are moved through {@link Positionable#setPosition} or
+ * <code>snap()</code>. Objects moved any other way (e.g., by calling
+ * {@link TwoDPoint#setX} on a shared vertex) must be re-indexed through
+ * {@link #update}.
+ *
+ * @param <T> the type of the indexed objects.
+ */
+public class SpatialIndex<T> implements PositionListener {
+
+    private static final int MAX_ENTRIES = 16;
+    private static final int MIN_ENTRIES = MAX_ENTRIES / 4;
+
+    private final Function<? super T, BoundingBox> boxer;
+
+    // The box every entry is currently indexed under, and the leaf holding it.
+    private final Map<T, BoundingBox> boxes = new IdentityHashMap<>();
+    private final Map<T, Node<T>> leaves = new IdentityHashMap<>();
+
+    private Node<T> root = new Node<>(true);
+
+    /**
+     * @param boxer the function giving the bounding box of an entry.
+     */
+    public SpatialIndex(Function<? super T, BoundingBox> boxer) {
+        this.boxer = boxer;
+    }
+
+    /**
+     * @return an empty index of two-dimensional shapes.
+     */
+    public static SpatialIndex<TwoDShape> forShapes() {
+        return new SpatialIndex<>(TwoDShape::boundingBox);
+    }
+
+    /**
+     * Returns an empty index of points. Points are indexed by their
+     * <code>x</code> and <code>y</code> values, so a {@link ThreeDPoint} is
+     * indexed by its projection on the x-y plane.
+     *
+     * @return an empty index of points.
+     */
+    public static SpatialIndex<Point> forPoints() {
+        return new SpatialIndex<>(point -> {
+            double[] coordinates = point.coordinates();
+            return BoundingBox.ofPoint(coordinates[0], coordinates[1]);
+        });
+    }
+
+    /**
+     * @return the number of entries in this index.
+     */
+    public int size() {
+        return boxes.size();
+    }
+
+    /**
+     * Adds an entry to this index. Adding an entry that is already indexed has
+     * the same effect as {@link #update}.
+     *
+     * @param t the entry to add.
+     */
+    public void insert(T t) {
+        if (boxes.containsKey(t)) {
+            update(t);
+            return;
+        }
+
+        BoundingBox box = boxer.apply(t);
+        boxes.put(t, box);
+        insertIntoTree(t, box);
+
+        if (t instanceof ObservablePositionable)
+            ((ObservablePositionable) t).addPositionListener(this);
+    }
+
+    /**
+     * Removes an entry from this index.
+     *
+     * @param t the entry to remove.
+     * @return <code>true</code> if the entry was indexed.
+     */
+    public boolean remove(T t) {
+        if (!boxes.containsKey(t))
+            return false;
+
+        removeFromTree(t);
+        boxes.remove(t);
+
+        if (t instanceof ObservablePositionable)
+            ((ObservablePositionable) t).removePositionListener(this);
+
+        return true;
+    }
+
+    /**
+     * Re-indexes an entry after it has been moved. If the new bounding box still
+     * fits in the leaf holding the entry, only the boxes on the path to the root
+     * are shrunk; otherwise the entry is moved to a better leaf.
+     *
+     * @param t the entry that was moved.
+     * @throws IllegalArgumentException if the entry is not in this index.
+     */
+    public void update(T t) {
+        Node<T> leaf = leaves.get(t);
+
+        if (leaf == null)
+            throw new IllegalArgumentException("Entry is not in this Index");
+
+        BoundingBox box = boxer.apply(t);
+        boxes.put(t, box);
+
+        if (leaf.box != null && leaf.box.contains(box)) {
+            for (Node<T> node = leaf; node != null; node = node.parent)
+                node.recomputeBox(boxes);
+        } else {
+            removeFromTree(t);
+            insertIntoTree(t, box);
+        }
+    }
+
+    /**
+     * Called by the indexed {@link ObservablePositionable} entries whenever they
+     * are moved.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void positionChanged(Positionable source) {
+        if (leaves.containsKey(source))
+            update((T) source);
+    }
+
+    /**
+     * Replaces the contents of this index with the given entries, packing them
+     * with the Sort-Tile-Recursive (STR) algorithm. The entries are sorted by the
+     * x value of their centers and cut into vertical slices, and each slice is
+     * sorted by y and cut into full leaves. The same is then done to the leaves
+     * until a single root is left. This gives a tree with nearly full nodes that
+     * overlap very little, and is much faster than inserting one by one.
+     *
+     * @param entries the entries to index.
+     */
+    public void bulkLoad(Collection<? extends T> entries) {
+        for (T t : boxes.keySet()) {
+            if (t instanceof ObservablePositionable)
+                ((ObservablePositionable) t).removePositionListener(this);
+        }
+
+        boxes.clear();
+        leaves.clear();
+
+        List<Node<T>> nodes = new ArrayList<>();
+        List<T> sorted = new ArrayList<>();
+
+        for (T t : entries) {
+            if (boxes.containsKey(t))
+                continue;
+
+            boxes.put(t, boxer.apply(t));
+            sorted.add(t);
+
+            if (t instanceof ObservablePositionable)
+                ((ObservablePositionable) t).addPositionListener(this);
+        }
+
+        for (List<T> group : tile(sorted, boxes::get)) {
+            Node<T> leaf = new Node<>(true);
+
+            for (T t : group) {
+                leaf.entries.add(t);
+                leaves.put(t, leaf);
+            }
+
+            leaf.recomputeBox(boxes);
+            nodes.add(leaf);
+        }
+
+        while (nodes.size() > 1) {
+            List<Node<T>> parents = new ArrayList<>();
+
+            for (List<Node<T>> group : tile(nodes, node -> node.box)) {
+                Node<T> parent = new Node<>(false);
+
+                for (Node<T> child : group) {
+                    parent.children.add(child);
+                    child.parent = parent;
+                }
+
+                parent.recomputeBox(boxes);
+                parents.add(parent);
+            }
+
+            nodes = parents;
+        }
+
+        root = nodes.isEmpty() ? new Node<>(true) : nodes.get(0);
+        root.parent = null;
+    }
+
+    /**
+     * Cuts the given items into groups of at most {@link #MAX_ENTRIES}, as done
+     * by one level of Sort-Tile-Recursive packing.
+     */
+    private static <E> List<List<E>> tile(List<E> items, Function<E, BoundingBox> boxOf) {
+        List<List<E>> groups = new ArrayList<>();
+        int pages = (items.size() + MAX_ENTRIES - 1) / MAX_ENTRIES;
+        int slices = (int) Math.ceil(Math.sqrt(pages));
+        int sliceSize = Math.max(1, (pages + slices - 1) / slices) * MAX_ENTRIES;
+
+        List<E> byX = new ArrayList<>(items);
+        byX.sort(Comparator.comparingDouble(e -> boxOf.apply(e).centerX()));
+
+        for (int start = 0; start < byX.size(); start += sliceSize) {
+            List<E> slice = new ArrayList<>(byX.subList(start, Math.min(start + sliceSize, byX.size())));
+            slice.sort(Comparator.comparingDouble(e -> boxOf.apply(e).centerY()));
+
+            for (int i = 0; i < slice.size(); i += MAX_ENTRIES)
+                groups.add(new ArrayList<>(slice.subList(i, Math.min(i + MAX_ENTRIES, slice.size()))));
+        }
+
+        return groups;
+    }
+
+    /**
+     * @param range the box to search.
+     * @return every entry whose bounding box intersects <code>range</code>.
+     */
+    public List<T> search(BoundingBox range) {
+        List<T> result = new ArrayList<>();
+
+        if (root.box != null)
+            search(root, range, result);
+
+        return result;
+    }
+
+    private void search(Node<T> node, BoundingBox range, List<T> result) {
+        if (node.leaf) {
+            for (T t : node.entries) {
+                if (boxes.get(t).intersects(range))
+                    result.add(t);
+            }
+        } else {
+            for (Node<T> child : node.children) {
+                if (child.box.intersects(range))
+                    search(child, range, result);
+            }
+        }
+    }
+
+    /**
+     * Returns every entry containing the point (x, y). Entries that are
+     * {@link TwoDShape}s are checked with {@link TwoDShape#contains}; all other
+     * entries are checked against their bounding box.
+     *
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @return the entries containing the point.
+     */
+    public List<T> containing(double x, double y) {
+        List<T> result = new ArrayList<>();
+
+        for (T t : search(BoundingBox.ofPoint(x, y))) {
+            if (!(t instanceof TwoDShape) || ((TwoDShape) t).contains(x, y))
+                result.add(t);
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the <code>k</code> entries closest to the point (x, y), where the
+     * distance to an entry is the distance to its bounding box. Nodes are visited
+     * closest first, and the search stops as soon as <code>k</code> entries have
+     * been found, since every entry left is at least as far away.
+     *
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @param k the number of entries to find.
+     * @return at most <code>k</code> entries, closest first.
+     */
+    public List<T> nearest(double x, double y, int k) {
+        List<T> result = new ArrayList<>();
+
+        if (k <= 0 || root.box == null)
+            return result;
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(root, root.box.squaredDistance(x, y)));
+
+        while (!queue.isEmpty() && result.size() < k) {
+            Candidate candidate = queue.poll();
+
+            if (candidate.item instanceof Node) {
+                @SuppressWarnings("unchecked")
+                Node<T> node = (Node<T>) candidate.item;
+
+                if (node.leaf) {
+                    for (T t : node.entries)
+                        queue.add(new Candidate(t, boxes.get(t).squaredDistance(x, y)));
+                } else {
+                    for (Node<T> child : node.children)
+                        queue.add(new Candidate(child, child.box.squaredDistance(x, y)));
+                }
+            } else {
+                @SuppressWarnings("unchecked")
+                T t = (T) candidate.item;
+                result.add(t);
+            }
+        }
+
+        return result;
+    }
+
+    private void insertIntoTree(T t, BoundingBox box) {
+        Node<T> node = root;
+
+        // Go down the child whose box grows the least to hold the new entry.
+        while (!node.leaf) {
+            Node<T> best = null;
+            double bestGrowth = Double.POSITIVE_INFINITY, bestArea = Double.POSITIVE_INFINITY;
+
+            for (Node<T> child : node.children) {
+                double area = child.box.area();
+                double growth = child.box.union(box).area() - area;
+
+                if (growth < bestGrowth || (growth == bestGrowth && area < bestArea)) {
+                    best = child;
+                    bestGrowth = growth;
+                    bestArea = area;
+                }
+            }
+
+            node = best;
+        }
+
+        node.entries.add(t);
+        leaves.put(t, node);
+
+        for (Node<T> n = node; n != null; n = n.parent)
+            n.box = n.box == null ? box : n.box.union(box);
+
+        while (node != null && node.size() > MAX_ENTRIES)
+            node = split(node);
+    }
+
+    /**
+     * Splits an overfull node in two along the axis where the centers of its
+     * items are spread out the most.
+     *
+     * @return the parent of the split node, which may now be overfull itself.
+     */
+    private Node<T> split(Node<T> node) {
+        Node<T> sibling = new Node<>(node.leaf);
+
+        if (node.leaf) {
+            List<T> sorted = sortAlongWidestAxis(node.entries, boxes::get);
+            node.entries.clear();
+            node.entries.addAll(sorted.subList(0, sorted.size() / 2));
+            sibling.entries.addAll(sorted.subList(sorted.size() / 2, sorted.size()));
+
+            for (T t : sibling.entries)
+                leaves.put(t, sibling);
+        } else {
+            List<Node<T>> sorted = sortAlongWidestAxis(node.children, child -> child.box);
+            node.children.clear();
+            node.children.addAll(sorted.subList(0, sorted.size() / 2));
+            sibling.children.addAll(sorted.subList(sorted.size() / 2, sorted.size()));
+
+            for (Node<T> child : sibling.children)
+                child.parent = sibling;
+        }
+
+        node.recomputeBox(boxes);
+        sibling.recomputeBox(boxes);
+
+        if (node.parent == null) {
+            root = new Node<>(false);
+            root.children.add(node);
+            node.parent = root;
+        }
+
+        sibling.parent = node.parent;
+        node.parent.children.add(sibling);
+        node.parent.recomputeBox(boxes);
+
+        return node.parent;
+    }
+
+    private static <E> List<E> sortAlongWidestAxis(List<E> items, Function<E, BoundingBox> boxOf) {
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+        for (E item : items) {
+            BoundingBox box = boxOf.apply(item);
+            minX = Math.min(minX, box.centerX());
+            maxX = Math.max(maxX, box.centerX());
+            minY = Math.min(minY, box.centerY());
+            maxY = Math.max(maxY, box.centerY());
+        }
+
+        List<E> sorted = new ArrayList<>(items);
+
+        if (maxX - minX >= maxY - minY)
+            sorted.sort(Comparator.comparingDouble(item -> boxOf.apply(item).centerX()));
+        else
+            sorted.sort(Comparator.comparingDouble(item -> boxOf.apply(item).centerY()));
+
+        return sorted;
+    }
+
+    private void removeFromTree(T t) {
+        Node<T> leaf = leaves.remove(t);
+
+        for (int i = 0; i < leaf.entries.size(); i++) {
+            if (leaf.entries.get(i) == t) {
+                leaf.entries.remove(i);
+                break;
+            }
+        }
+
+        /*
+         * Walk back up to the root. Nodes left with too few items are cut out of the
+         * tree, and their entries are put back in once the tree is consistent again.
+         */
+        List<T> orphans = new ArrayList<>();
+        Node<T> node = leaf;
+
+        while (node.parent != null) {
+            Node<T> parent = node.parent;
+
+            if (node.size() < MIN_ENTRIES) {
+                parent.children.remove(node);
+                collectEntries(node, orphans);
+            } else {
+                node.recomputeBox(boxes);
+            }
+
+            node = parent;
+        }
+
+        root.recomputeBox(boxes);
+
+        while (!root.leaf && root.children.size() == 1) {
+            root = root.children.get(0);
+            root.parent = null;
+        }
+
+        if (!root.leaf && root.children.isEmpty())
+            root = new Node<>(true);
+
+        for (T orphan : orphans)
+            insertIntoTree(orphan, boxes.get(orphan));
+    }
+
+    private void collectEntries(Node<T> node, List<T> result) {
+        if (node.leaf) {
+            for (T t : node.entries)
+                leaves.remove(t);
+
+            result.addAll(node.entries);
+        } else {
+            for (Node<T> child : node.children)
+                collectEntries(child, result);
+        }
+    }
+
+    /**
+     * A node of the tree. Leaves hold entries; every other node holds child
+     * nodes. The box of a node holds the boxes of everything below it, and is
+     * <code>null</code> for an empty node.
+     */
+    private static class Node<T> {
+
+        final boolean leaf;
+        final List<T> entries = new ArrayList<>();
+        final List<Node<T>> children = new ArrayList<>();
+        Node<T> parent;
+        BoundingBox box;
+
+        Node(boolean leaf) {
+            this.leaf = leaf;
+        }
+
+        int size() {
+            return leaf ? entries.size() : children.size();
+        }
+
+        void recomputeBox(Map<T, BoundingBox> boxes) {
+            box = null;
+
+            if (leaf) {
+                for (T t : entries)
+                    box = box == null ? boxes.get(t) : box.union(boxes.get(t));
+            } else {
+                for (Node<T> child : children) {
+                    if (child.box != null)
+                        box = box == null ? child.box : box.union(child.box);
+                }
+            }
+        }
+    }
+
+    /**
+     * A node or an entry waiting in the nearest-neighbour queue, ordered by its
+     * squared distance to the query point.
+     */
+    private static class Candidate implements Comparable<Candidate> {
+
+        final Object item;
+        final double distance;
+
+        Candidate(Object item, double distance) {
+            this.item = item;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Candidate o) {
+            return Double.compare(distance, o.distance);
+        }
+    }
+}
@@ -5,12 +5,16 @@
  */
 public class ThreeDPoint implements Point {
 
-    double x, y, z;
+    private final double x, y, z;
+
+    // Cached x^2 + y^2 + z^2, computed once since the point is unmodifiable.
+    private final double squaredNorm;
 
     public ThreeDPoint(double x, double y, double z) {
         this.x = x;
         this.y = y;
         this.z = z;
+        this.squaredNorm = x * x + y * y + z * z;
     }
 
     /**
@@ -52,8 +56,11 @@ public class ThreeDPoint implements Point {
      * @return the distance between the first and second 2Dpoints.
      */
     public static double distance(ThreeDPoint point1, ThreeDPoint point2) {
-        return Math.sqrt(Math.pow(point1.getX() - point2.getX(), 2) + Math.pow(point1.getY() - point2.getY(), 2)
-                + Math.pow(point1.getZ() - point2.getZ(), 2));
+        double dx = point1.getX() - point2.getX();
+        double dy = point1.getY() - point2.getY();
+        double dz = point1.getZ() - point2.getZ();
+
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
     }
 
     /**
@@ -61,7 +68,15 @@ public class ThreeDPoint implements Point {
      */
     @Override
     public double distanceFromOrigin() {
-        return distance(this, new ThreeDPoint(0, 0, 0));
+        return Math.sqrt(squaredNorm);
+    }
+
+    /**
+     * @return the squared distance between this point and the origin.
+     */
+    @Override
+    public double squaredDistanceFromOrigin() {
+        return squaredNorm;
     }
 
     /**
@@ -76,6 +91,6 @@ public class ThreeDPoint implements Point {
 
     @Override
     public int compareTo(Point o) {
-        return ((Double) this.distanceFromOrigin()).compareTo(o.distanceFromOrigin());
+        return Double.compare(squaredNorm, o.squaredDistanceFromOrigin());
     }
 }
@@ -0,0 +1,277 @@
+import java.util.Arrays;
+
+/**
+ * A columnar store of points in the three-dimensional space. The coordinates
+ * are kept in three parallel <code>double[]</code> arrays instead of one
+ * {@link ThreeDPoint} object per point. Individual points can still be looked
+ * at through lightweight {@link Point} views.
+ */
+public class ThreeDPointBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] xs, ys, zs;
+    private int size;
+
+    public ThreeDPointBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ThreeDPointBuffer(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity Must not be Negative");
+
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.zs = new double[capacity];
+    }
+
+    /**
+     * Returns a buffer holding the points described by the specified array of
+     * doubles. Every three doubles are taken as the <code>x</code>,
+     * <code>y</code> and <code>z</code> value of a single point.
+     *
+     * @param coordinates the specified array of doubles.
+     * @return a buffer of three-dimensional points.
+     * @throws IllegalArgumentException if the length of the input array is not a
+     *                                  multiple of three.
+     */
+    public static ThreeDPointBuffer ofDoubles(double... coordinates) throws IllegalArgumentException {
+
+        if (coordinates.length % 3 != 0) {
+            throw new IllegalArgumentException("Input List Size Must Be a Multiple of 3");
+        }
+
+        ThreeDPointBuffer buffer = new ThreeDPointBuffer(coordinates.length / 3);
+
+        for (int i = 0; i < coordinates.length; i += 3) {
+            buffer.xs[i / 3] = coordinates[i];
+            buffer.ys[i / 3] = coordinates[i + 1];
+            buffer.zs[i / 3] = coordinates[i + 2];
+        }
+
+        buffer.size = coordinates.length / 3;
+
+        return buffer;
+    }
+
+    /**
+     * Adds a point to the end of this buffer.
+     *
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @param z the z value of the point.
+     * @return the index the point was stored at.
+     */
+    public int add(double x, double y, double z) {
+        ensureCapacity(size + 1);
+
+        xs[size] = x;
+        ys[size] = y;
+        zs[size] = z;
+
+        return size++;
+    }
+
+    /**
+     * Adds a copy of the given point to the end of this buffer.
+     *
+     * @param point the point to copy.
+     * @return the index the point was stored at.
+     */
+    public int add(ThreeDPoint point) {
+        return add(point.getX(), point.getY(), point.getZ());
+    }
+
+    /**
+     * Grows the backing arrays so that they can hold at least
+     * <code>minCapacity</code> points.
+     *
+     * @param minCapacity the minimum number of points to hold.
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= xs.length)
+            return;
+
+        int newCapacity = Math.max(minCapacity, xs.length + (xs.length >> 1) + 1);
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+        zs = Arrays.copyOf(zs, newCapacity);
+    }
+
+    /**
+     * @return the number of points stored in this buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    public double getX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    public double getZ(int index) {
+        checkIndex(index);
+        return zs[index];
+    }
+
+    /**
+     * Returns a view of the point at the given index. The view does not copy the
+     * coordinates, so any change to the buffer can be seen through it.
+     *
+     * @param index the index of the point.
+     * @return a {@link Point} backed by this buffer.
+     */
+    public View get(int index) {
+        checkIndex(index);
+        return new View(index);
+    }
+
+    /**
+     * Copies the point at the given index out of this buffer.
+     *
+     * @param index the index of the point.
+     * @return a new {@link ThreeDPoint} with the same coordinates.
+     */
+    public ThreeDPoint toThreeDPoint(int index) {
+        checkIndex(index);
+        return new ThreeDPoint(xs[index], ys[index], zs[index]);
+    }
+
+    /**
+     * Calculates the distance between the points at indices i and j using the
+     * formula sqrt((x2-x1)^2+(y2-y1)^2+(z2-z1)^2).
+     *
+     * @param i the index of the first point.
+     * @param j the index of the second point.
+     * @return the distance between the two points.
+     */
+    public double distance(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+
+        double dx = xs[i] - xs[j];
+        double dy = ys[i] - ys[j];
+        double dz = zs[i] - zs[j];
+
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Calculates the distance from the origin of every point in this buffer.
+     *
+     * @param out the array to write the results to, or <code>null</code> to
+     *            allocate a new one.
+     * @return the array holding the distance of point i at index i.
+     */
+    public double[] distanceFromOrigin(double[] out) {
+        out = checkOut(out, size);
+
+        for (int i = 0; i < size; i++) {
+            out[i] = Math.sqrt(xs[i] * xs[i] + ys[i] * ys[i] + zs[i] * zs[i]);
+        }
+
+        return out;
+    }
+
+    /**
+     * Calculates the distance between every point i in this buffer and point i
+     * in the other buffer.
+     *
+     * @param other the other buffer, which must have the same size.
+     * @param out   the array to write the results to, or <code>null</code> to
+     *              allocate a new one.
+     * @return the array holding the distance of pair i at index i.
+     */
+    public double[] distance(ThreeDPointBuffer other, double[] out) {
+        if (other.size != size)
+            throw new IllegalArgumentException("Buffers Must be of the Same Size");
+
+        out = checkOut(out, size);
+
+        for (int i = 0; i < size; i++) {
+            double dx = xs[i] - other.xs[i];
+            double dy = ys[i] - other.ys[i];
+            double dz = zs[i] - other.zs[i];
+            out[i] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+
+        return out;
+    }
+
+    private static double[] checkOut(double[] out, int size) {
+        if (out == null)
+            return new double[size];
+
+        if (out.length < size)
+            throw new IllegalArgumentException("Output Array is Too Small");
+
+        return out;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+
+    /**
+     * A {@link Point} that reads its coordinates straight from the buffer it was
+     * created from.
+     */
+    public class View implements Point {
+
+        private final int index;
+
+        private View(int index) {
+            this.index = index;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public double[] coordinates() {
+            return new double[] { xs[index], ys[index], zs[index] };
+        }
+
+        @Override
+        public double getX() {
+            return xs[index];
+        }
+
+        public double getY() {
+            return ys[index];
+        }
+
+        public double getZ() {
+            return zs[index];
+        }
+
+        @Override
+        public double distanceFromOrigin() {
+            return Math.sqrt(xs[index] * xs[index] + ys[index] * ys[index] + zs[index] * zs[index]);
+        }
+
+        @Override
+        public double squaredDistanceFromOrigin() {
+            return xs[index] * xs[index] + ys[index] * ys[index] + zs[index] * zs[index];
+        }
+
+        @Override
+        public String toString() {
+            return "(" + xs[index] + ", " + ys[index] + ", " + zs[index] + ")";
+        }
+
+        @Override
+        public int compareTo(Point o) {
+            return Double.compare(squaredDistanceFromOrigin(), o.squaredDistanceFromOrigin());
+        }
+    }
+}
@@ -1,9 +1,21 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-public class Triangle implements TwoDShape, Positionable {
+public class Triangle implements TwoDShape, ObservablePositionable {
 
     List<TwoDPoint> vertices;
+    private final List<PositionListener> listeners = new ArrayList<>();
+
+    /*
+     * Derived geometry, computed on first use and thrown away whenever the
+     * vertices change through setPosition or snap. NaN and null mean "not yet
+     * computed".
+     */
+    private double area = Double.NaN;
+    private double perimeter = Double.NaN;
+    private BoundingBox boundingBox;
+    private TwoDPoint centroid;
 
     public Triangle(List<TwoDPoint> vertices) {
 
@@ -18,6 +30,15 @@ public class Triangle implements TwoDShape, Positionable {
         this.setPosition(vertices);
     }
 
+    /**
+     * Creates a triangle from three vertices that the caller has already checked,
+     * skipping the {@link #isMember} check. Used by {@link ShapeBatch}, which
+     * validates all of its shapes in one pass up front.
+     */
+    Triangle(TwoDPoint a, TwoDPoint b, TwoDPoint c) {
+        this.setPosition(Arrays.asList(a, b, c));
+    }
+
     /**
      * Sets the position of this triangle according to the first three elements in
      * the specified list of points. The triangle is formed on the basis of these
@@ -77,7 +98,45 @@ public class Triangle implements TwoDShape, Positionable {
             vertices.set(2, swapTemp);
         }
 
-        // System.out.println(getPosition());
+        invalidate();
+        firePositionChanged();
+    }
+
+    /**
+     * Throws away the memoized area, perimeter, bounding box and centroid. This is
+     * done automatically by {@link #setPosition} and {@link #snap()}, but must be
+     * called by hand if a vertex of this triangle is changed through
+     * {@link TwoDPoint#setX} or {@link TwoDPoint#setY}.
+     */
+    public void invalidate() {
+        area = Double.NaN;
+        perimeter = Double.NaN;
+        boundingBox = null;
+        centroid = null;
+    }
+
+    /**
+     * Registers a listener to be told whenever this triangle is moved.
+     *
+     * @param listener the listener to add.
+     */
+    @Override
+    public void addPositionListener(PositionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener to remove.
+     */
+    @Override
+    public void removePositionListener(PositionListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void firePositionChanged() {
+        for (PositionListener listener : listeners) {
+            listener.positionChanged(this);
+        }
     }
 
     /**
@@ -136,18 +195,28 @@ public class Triangle implements TwoDShape, Positionable {
                 throw new IllegalArgumentException("Points must be of type TwoDPoint");
         }
 
-        ArrayList<TwoDPoint> temp = new ArrayList<>();
-        temp.add((TwoDPoint) vertices.get(0));
-        temp.add((TwoDPoint) vertices.get(1));
-        temp.add((TwoDPoint) vertices.get(2));
+        return isValid((TwoDPoint) vertices.get(0), (TwoDPoint) vertices.get(1), (TwoDPoint) vertices.get(2));
+    }
+
+    /**
+     * Checks whether three points form a valid triangle, without building any
+     * objects along the way.
+     *
+     * @param a the first vertex.
+     * @param b the second vertex.
+     * @param c the third vertex.
+     * @return <code>true</code> if the three points are distinct and not in a
+     *         straight line.
+     */
+    static boolean isValid(TwoDPoint a, TwoDPoint b, TwoDPoint c) {
 
         // If any 2 points are equal to the first, then this is not a triangle.
-        if (temp.get(0).equals(temp.get(1)) || temp.get(0).equals(temp.get(2)))
+        if (a.equals(b) || a.equals(c))
             return false;
 
         // If their slopes are equal, then this is just a line.
-        double slope1 = TwoDPoint.slope(temp.get(1), temp.get(0));
-        double slope2 = TwoDPoint.slope(temp.get(2), temp.get(0));
+        double slope1 = TwoDPoint.slope(b, a);
+        double slope2 = TwoDPoint.slope(c, a);
 
         return !(slope1 == slope2);
     }
@@ -174,6 +243,8 @@ public class Triangle implements TwoDShape, Positionable {
 
         if (isMember(snapped)) {
             vertices = snapped;
+            invalidate();
+            firePositionChanged();
         }
 
     }
@@ -182,6 +253,13 @@ public class Triangle implements TwoDShape, Positionable {
      * @return the area of this triangle
      */
     public double area() {
+        if (Double.isNaN(area))
+            area = computeArea();
+
+        return area;
+    }
+
+    private double computeArea() {
         double term1 = (vertices.get(1).getX() - vertices.get(0).getX())
                 * (vertices.get(2).getY() - vertices.get(0).getY());
         double term2 = (vertices.get(2).getX() - vertices.get(0).getX())
@@ -195,11 +273,47 @@ public class Triangle implements TwoDShape, Positionable {
      *         triangle
      */
     public double perimeter() {
-        double side1 = TwoDPoint.distance(vertices.get(1), vertices.get(0));
-        double side2 = TwoDPoint.distance(vertices.get(2), vertices.get(0));
-        double side3 = TwoDPoint.distance(vertices.get(2), vertices.get(1));
+        if (Double.isNaN(perimeter)) {
+            double side1 = TwoDPoint.distance(vertices.get(1), vertices.get(0));
+            double side2 = TwoDPoint.distance(vertices.get(2), vertices.get(0));
+            double side3 = TwoDPoint.distance(vertices.get(2), vertices.get(1));
 
-        return side1 + side2 + side3;
+            perimeter = side1 + side2 + side3;
+        }
+
+        return perimeter;
+    }
+
+    /**
+     * @return the smallest axis-aligned box holding every vertex of this triangle.
+     */
+    @Override
+    public BoundingBox boundingBox() {
+        if (boundingBox == null)
+            boundingBox = Polygons.boundingBox(vertices);
+
+        return boundingBox;
+    }
+
+    /**
+     * @return the centroid of this triangle, i.e., the average of its three
+     *         vertices.
+     */
+    public TwoDPoint centroid() {
+        if (centroid == null) {
+            centroid = new TwoDPoint((vertices.get(0).getX() + vertices.get(1).getX() + vertices.get(2).getX()) / 3,
+                    (vertices.get(0).getY() + vertices.get(1).getY() + vertices.get(2).getY()) / 3);
+        }
+
+        return centroid.clone();
+    }
+
+    /**
+     * @return <code>true</code> if (x, y) lies inside this triangle.
+     */
+    @Override
+    public boolean contains(double x, double y) {
+        return Polygons.contains(vertices, x, y);
     }
 
     /**
@@ -212,6 +326,6 @@ public class Triangle implements TwoDShape, Positionable {
 
     @Override
     public int compareTo(TwoDShape o) {
-        return ((Double) this.area()).compareTo(o.area());
+        return Double.compare(area(), o.area());
     }
 }
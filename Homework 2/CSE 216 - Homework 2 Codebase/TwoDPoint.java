@@ -10,9 +10,13 @@ public class TwoDPoint implements Point {
 
     private double x, y;
 
+    // Cached x^2 + y^2, kept in sync by the constructor and the setters.
+    private double squaredNorm;
+
     public TwoDPoint(double x, double y) {
         this.x = x;
         this.y = y;
+        this.squaredNorm = x * x + y * y;
     }
 
     /**
@@ -40,6 +44,7 @@ public class TwoDPoint implements Point {
      */
     public void setX(double x) {
         this.x = x;
+        this.squaredNorm = x * x + y * y;
     }
 
     /**
@@ -49,6 +54,7 @@ public class TwoDPoint implements Point {
      */
     public void setY(double y) {
         this.y = y;
+        this.squaredNorm = x * x + y * y;
     }
 
     /**
@@ -106,7 +112,10 @@ public class TwoDPoint implements Point {
      * @return the distance between the first and second 2Dpoints.
      */
     public static double distance(TwoDPoint point1, TwoDPoint point2) {
-        return Math.sqrt(Math.pow(point1.getX() - point2.getX(), 2) + Math.pow(point1.getY() - point2.getY(), 2));
+        double dx = point1.getX() - point2.getX();
+        double dy = point1.getY() - point2.getY();
+
+        return Math.sqrt(dx * dx + dy * dy);
     }
 
     /**
@@ -114,7 +123,15 @@ public class TwoDPoint implements Point {
      */
     @Override
     public double distanceFromOrigin() {
-        return distance(this, new TwoDPoint(0, 0));
+        return Math.sqrt(squaredNorm);
+    }
+
+    /**
+     * @return the squared distance between this point and the origin.
+     */
+    @Override
+    public double squaredDistanceFromOrigin() {
+        return squaredNorm;
     }
 
     /**
@@ -155,8 +172,12 @@ public class TwoDPoint implements Point {
         return "(" + x + ", " + y + ")";
     }
     
+    /**
+     * Compares points by their distance from the origin. The squared distances
+     * are compared instead, which gives the same order without a square root.
+     */
     @Override
     public int compareTo(Point o) {
-        return ((Double) this.distanceFromOrigin()).compareTo(o.distanceFromOrigin());
+        return Double.compare(squaredNorm, o.squaredDistanceFromOrigin());
     }
 }
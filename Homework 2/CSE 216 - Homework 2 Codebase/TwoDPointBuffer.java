@@ -0,0 +1,310 @@
+import java.util.Arrays;
+
+/**
+ * A columnar store of points in the standard two-dimensional Euclidean space.
+ * Instead of keeping one {@link TwoDPoint} object per point, the coordinates
+ * are kept in two parallel <code>double[]</code> arrays, one for the
+ * <code>x</code> values and one for the <code>y</code> values. Individual
+ * points can still be looked at through lightweight {@link Point} views.
+ */
+public class TwoDPointBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] xs, ys;
+    private int size;
+
+    public TwoDPointBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TwoDPointBuffer(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity Must not be Negative");
+
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+    }
+
+    /**
+     * Returns a buffer holding the points described by the specified array of
+     * doubles. Just like {@link TwoDPoint#ofDoubles(double...)}, every pair of
+     * doubles is taken as the <code>x</code> and <code>y</code> value of a
+     * single point.
+     *
+     * @param coordinates the specified array of doubles.
+     * @return a buffer of two-dimensional points.
+     * @throws IllegalArgumentException if the input array has an odd number of
+     *                                  doubles.
+     */
+    public static TwoDPointBuffer ofDoubles(double... coordinates) throws IllegalArgumentException {
+
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("Input List Must Be of Even Size");
+        }
+
+        TwoDPointBuffer buffer = new TwoDPointBuffer(coordinates.length / 2);
+
+        for (int i = 0; i < coordinates.length; i += 2) {
+            buffer.xs[i / 2] = coordinates[i];
+            buffer.ys[i / 2] = coordinates[i + 1];
+        }
+
+        buffer.size = coordinates.length / 2;
+
+        return buffer;
+    }
+
+    /**
+     * Adds a point to the end of this buffer.
+     *
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @return the index the point was stored at.
+     */
+    public int add(double x, double y) {
+        ensureCapacity(size + 1);
+
+        xs[size] = x;
+        ys[size] = y;
+
+        return size++;
+    }
+
+    /**
+     * Adds a copy of the given point to the end of this buffer.
+     *
+     * @param point the point to copy.
+     * @return the index the point was stored at.
+     */
+    public int add(TwoDPoint point) {
+        return add(point.getX(), point.getY());
+    }
+
+    /**
+     * Grows the backing arrays so that they can hold at least
+     * <code>minCapacity</code> points.
+     *
+     * @param minCapacity the minimum number of points to hold.
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= xs.length)
+            return;
+
+        int newCapacity = Math.max(minCapacity, xs.length + (xs.length >> 1) + 1);
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+    }
+
+    /**
+     * @return the number of points stored in this buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    public double getX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    public void setX(int index, double x) {
+        checkIndex(index);
+        xs[index] = x;
+    }
+
+    public void setY(int index, double y) {
+        checkIndex(index);
+        ys[index] = y;
+    }
+
+    /**
+     * Returns a view of the point at the given index. The view does not copy the
+     * coordinates, so any change to the buffer can be seen through it.
+     *
+     * @param index the index of the point.
+     * @return a {@link Point} backed by this buffer.
+     */
+    public View get(int index) {
+        checkIndex(index);
+        return new View(index);
+    }
+
+    /**
+     * Copies the point at the given index out of this buffer.
+     *
+     * @param index the index of the point.
+     * @return a new {@link TwoDPoint} with the same coordinates.
+     */
+    public TwoDPoint toTwoDPoint(int index) {
+        checkIndex(index);
+        return new TwoDPoint(xs[index], ys[index]);
+    }
+
+    /**
+     * Calculates the distance between the points at indices i and j using the
+     * formula sqrt((x2-x1)^2+(y2-y1)^2).
+     *
+     * @param i the index of the first point.
+     * @param j the index of the second point.
+     * @return the distance between the two points.
+     */
+    public double distance(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+
+        double dx = xs[i] - xs[j];
+        double dy = ys[i] - ys[j];
+
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Calculates the slope of the line between the points at indices i and j
+     * using the formula (y2 - y1)/(x2 - x1).
+     *
+     * @param i the index of the first point.
+     * @param j the index of the second point.
+     * @return the slope between the two points.
+     */
+    public double slope(int i, int j) {
+        checkIndex(i);
+        checkIndex(j);
+
+        return (ys[i] - ys[j]) / (xs[i] - xs[j]);
+    }
+
+    /**
+     * Calculates the distance from the origin of every point in this buffer.
+     *
+     * @param out the array to write the results to, or <code>null</code> to
+     *            allocate a new one.
+     * @return the array holding the distance of point i at index i.
+     */
+    public double[] distanceFromOrigin(double[] out) {
+        out = checkOut(out, size);
+
+        for (int i = 0; i < size; i++) {
+            out[i] = Math.sqrt(xs[i] * xs[i] + ys[i] * ys[i]);
+        }
+
+        return out;
+    }
+
+    /**
+     * Calculates the distance between every point i in this buffer and point i
+     * in the other buffer.
+     *
+     * @param other the other buffer, which must have the same size.
+     * @param out   the array to write the results to, or <code>null</code> to
+     *              allocate a new one.
+     * @return the array holding the distance of pair i at index i.
+     */
+    public double[] distance(TwoDPointBuffer other, double[] out) {
+        if (other.size != size)
+            throw new IllegalArgumentException("Buffers Must be of the Same Size");
+
+        out = checkOut(out, size);
+
+        for (int i = 0; i < size; i++) {
+            double dx = xs[i] - other.xs[i];
+            double dy = ys[i] - other.ys[i];
+            out[i] = Math.sqrt(dx * dx + dy * dy);
+        }
+
+        return out;
+    }
+
+    /**
+     * Calculates the slope between every point i in this buffer and point i in
+     * the other buffer.
+     *
+     * @param other the other buffer, which must have the same size.
+     * @param out   the array to write the results to, or <code>null</code> to
+     *              allocate a new one.
+     * @return the array holding the slope of pair i at index i.
+     */
+    public double[] slope(TwoDPointBuffer other, double[] out) {
+        if (other.size != size)
+            throw new IllegalArgumentException("Buffers Must be of the Same Size");
+
+        out = checkOut(out, size);
+
+        for (int i = 0; i < size; i++) {
+            out[i] = (ys[i] - other.ys[i]) / (xs[i] - other.xs[i]);
+        }
+
+        return out;
+    }
+
+    private static double[] checkOut(double[] out, int size) {
+        if (out == null)
+            return new double[size];
+
+        if (out.length < size)
+            throw new IllegalArgumentException("Output Array is Too Small");
+
+        return out;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+
+    /**
+     * A {@link Point} that reads its coordinates straight from the buffer it was
+     * created from.
+     */
+    public class View implements Point {
+
+        private final int index;
+
+        private View(int index) {
+            this.index = index;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public double[] coordinates() {
+            return new double[] { xs[index], ys[index] };
+        }
+
+        @Override
+        public double getX() {
+            return xs[index];
+        }
+
+        public double getY() {
+            return ys[index];
+        }
+
+        @Override
+        public double distanceFromOrigin() {
+            return Math.sqrt(xs[index] * xs[index] + ys[index] * ys[index]);
+        }
+
+        @Override
+        public double squaredDistanceFromOrigin() {
+            return xs[index] * xs[index] + ys[index] * ys[index];
+        }
+
+        @Override
+        public String toString() {
+            return "(" + xs[index] + ", " + ys[index] + ")";
+        }
+
+        @Override
+        public int compareTo(Point o) {
+            return Double.compare(squaredDistanceFromOrigin(), o.squaredDistanceFromOrigin());
+        }
+    }
+}
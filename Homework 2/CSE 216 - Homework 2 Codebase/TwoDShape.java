@@ -24,4 +24,17 @@ public interface TwoDShape extends Comparable<TwoDShape> {
     double area();
 
     TwoDPoint getRoot();
+
+    /**
+     * @return the smallest axis-aligned box holding the whole shape.
+     */
+    BoundingBox boundingBox();
+
+    /**
+     * Checks whether or not a point lies inside this shape.
+     * @param x the x value of the point.
+     * @param y the y value of the point.
+     * @return <code>true</code> if the point (x, y) is inside this shape, and <code>false</code> otherwise.
+     */
+    boolean contains(double x, double y);
 }
\ No newline at end of file
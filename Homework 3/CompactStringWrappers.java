@@ -0,0 +1,234 @@
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list of {@link StringWrapper}s that keeps the characters of all its strings
+ * in a few large byte pages, instead of in one <code>String</code> and one
+ * wrapper object per element. Each element takes up one <code>long</code>
+ * offset, one <code>int</code> length and its characters, stored one byte each
+ * if they are all Latin-1 and two bytes each otherwise, like compact strings.
+ *
+ * Lengths, comparisons and single characters are read straight from the pages.
+ * A <code>String</code> or <code>StringWrapper</code> is only built by
+ * {@link #getStr(int)} and {@link #get(int)}, for callers that need one.
+ */
+public class CompactStringWrappers extends AbstractList<StringWrapper> implements RandomAccess {
+
+    private static final int PAGE_SIZE = 1 << 20;
+
+    // The high bit of a length marks a string stored as two bytes per char.
+    private static final int UTF16 = 1 << 31;
+
+    private final boolean direct;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private ByteBuffer page;
+
+    // offsets[i] holds the page of element i in its upper half and the position
+    // in that page in its lower half.
+    private long[] offsets = new long[16];
+    private int[] lengths = new int[16];
+    private int size;
+
+    /**
+     * Creates an empty list whose pages are on the Java heap.
+     */
+    public CompactStringWrappers() {
+        this(false);
+    }
+
+    /**
+     * @param direct whether the pages are allocated outside the Java heap.
+     */
+    public CompactStringWrappers(boolean direct) {
+        this.direct = direct;
+    }
+
+    /**
+     * Adds the string of the given wrapper. The wrapper itself is not kept.
+     */
+    @Override
+    public boolean add(StringWrapper wrapper) {
+        add(wrapper.getStr());
+        return true;
+    }
+
+    /**
+     * Adds a string to the end of this list.
+     *
+     * @param str the string to add.
+     */
+    public void add(String str) {
+        int length = str.length();
+        boolean latin1 = true;
+
+        for (int i = 0; i < length && latin1; i++)
+            latin1 = str.charAt(i) <= 0xFF;
+
+        int bytes = latin1 ? length : 2 * length;
+        ByteBuffer target = reserve(bytes);
+        int position = target.position();
+
+        if (latin1) {
+            for (int i = 0; i < length; i++)
+                target.put((byte) str.charAt(i));
+        } else {
+            for (int i = 0; i < length; i++)
+                target.putChar(str.charAt(i));
+        }
+
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+        }
+
+        offsets[size] = ((long) (pages.size() - 1) << 32) | position;
+        lengths[size] = latin1 ? length : length | UTF16;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * @return the page to write the next <code>bytes</code> bytes to, starting a
+     *         new one if the current page is too full. A string larger than a
+     *         page gets a page of its own.
+     */
+    private ByteBuffer reserve(int bytes) {
+        if (page != null && page.remaining() >= bytes)
+            return page;
+
+        int capacity = Math.max(PAGE_SIZE, bytes);
+        page = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        pages.add(page);
+
+        return page;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the index of the element.
+     * @return the length of the string of that element.
+     */
+    public int length(int index) {
+        checkIndex(index);
+        return lengths[index] & ~UTF16;
+    }
+
+    /**
+     * @param index the index of the element.
+     * @param at    the index of the character in the string.
+     * @return the character.
+     */
+    public char charAt(int index, int at) {
+        int length = length(index);
+
+        if (at < 0 || at >= length)
+            throw new IndexOutOfBoundsException("Index " + at + " out of bounds for length " + length);
+
+        ByteBuffer source = pages.get((int) (offsets[index] >>> 32));
+        int position = (int) offsets[index];
+
+        if ((lengths[index] & UTF16) == 0)
+            return (char) (source.get(position + at) & 0xFF);
+
+        return source.getChar(position + 2 * at);
+    }
+
+    /**
+     * Compares two elements the same way {@link StringWrapper#compareTo} would,
+     * i.e., by the lengths of their strings.
+     *
+     * @param i the index of the first element.
+     * @param j the index of the second element.
+     * @return a negative number, zero or a positive number as the first element is
+     *         less than, equal to or greater than the second.
+     */
+    public int compare(int i, int j) {
+        return Integer.compare(length(i), length(j));
+    }
+
+    /**
+     * Compares an element with a wrapper the same way
+     * {@link StringWrapper#compareTo} would.
+     *
+     * @param index the index of the element.
+     * @param o     the wrapper to compare it with.
+     * @return a negative number, zero or a positive number as the element is less
+     *         than, equal to or greater than <code>o</code>.
+     */
+    public int compareTo(int index, StringWrapper o) {
+        return Integer.compare(length(index), o.getStr().length());
+    }
+
+    /**
+     * Finds the least element in a single pass over the lengths, with ties broken
+     * like {@link StreamUtils#least}.
+     *
+     * @param from_start if <code>true</code>, the earlier of two equal elements
+     *                   wins, otherwise the later one.
+     * @return the index of the least element, or -1 if this list is empty.
+     */
+    public int least(boolean from_start) {
+        int least = -1, leastLength = Integer.MAX_VALUE;
+
+        for (int i = 0; i < size; i++) {
+            int length = lengths[i] & ~UTF16;
+
+            if (length < leastLength || (length == leastLength && !from_start)) {
+                least = i;
+                leastLength = length;
+            }
+        }
+
+        return least;
+    }
+
+    /**
+     * Builds the string of an element.
+     *
+     * @param index the index of the element.
+     * @return the string.
+     */
+    public String getStr(int index) {
+        int length = length(index);
+        char[] chars = new char[length];
+
+        for (int i = 0; i < length; i++)
+            chars[i] = charAt(index, i);
+
+        return new String(chars);
+    }
+
+    /**
+     * Builds a new wrapper for an element.
+     */
+    @Override
+    public StringWrapper get(int index) {
+        return new StringWrapper(getStr(index));
+    }
+
+    /**
+     * @return the number of bytes taken up by the pages and the index of this
+     *         list.
+     */
+    public long memoryUsage() {
+        long bytes = (long) offsets.length * Long.BYTES + (long) lengths.length * Integer.BYTES;
+
+        for (ByteBuffer p : pages)
+            bytes += p.capacity();
+
+        return bytes;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+}
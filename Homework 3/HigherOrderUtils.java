@@ -1,12 +1,65 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 public class HigherOrderUtils {
 
     static interface NamedBiFunction<T, U, R> extends BiFunction<T, U, R> {
         String name();
+
+        /**
+         * @return <code>true</code> if applying this bifunction is associative, i.e.,
+         *         f(f(a, b), c) equals f(a, f(b, c)), so that a chain of it can be
+         *         evaluated in any grouping.
+         */
+        default boolean isAssociative() {
+            return false;
+        }
+
+        /**
+         * @return the identity element of this bifunction, i.e., the e for which
+         *         both f(e, a) and f(a, e) equal a for every a, or
+         *         <code>null</code> if there is none.
+         */
+        default R identity() {
+            return null;
+        }
+    }
+
+    /**
+     * The primitive counterpart of a <code>NamedBiFunction&lt;Double, Double,
+     * Double&gt;</code>, which works on <code>double</code>s without boxing them.
+     */
+    static interface NamedDoubleBinaryOperator extends DoubleBinaryOperator {
+        String name();
+
+        /**
+         * @return <code>true</code> if applying this operator is associative.
+         */
+        default boolean isAssociative() {
+            return false;
+        }
+
+        /**
+         * @return the identity element of this operator, or <code>NaN</code> if
+         *         there is none.
+         */
+        default double identity() {
+            return Double.NaN;
+        }
     }
 
     /**
@@ -23,6 +76,17 @@ public class HigherOrderUtils {
         public String name() {
             return "add";
         }
+
+        @Override
+        public boolean isAssociative() {
+            return true;
+        }
+
+        // x + -0.0 is exactly x for every x, including -0.0, which x + 0.0 is not.
+        @Override
+        public Double identity() {
+            return -0d;
+        }
     };
 
     /**
@@ -55,6 +119,16 @@ public class HigherOrderUtils {
         public String name() {
             return "mult";
         };
+
+        @Override
+        public boolean isAssociative() {
+            return true;
+        }
+
+        @Override
+        public Double identity() {
+            return 1d;
+        }
     };
 
     /**
@@ -76,6 +150,93 @@ public class HigherOrderUtils {
         };
     };
 
+    /**
+     * Adds two doubles
+     */
+    public static NamedDoubleBinaryOperator doubleAdd = new NamedDoubleBinaryOperator() {
+
+        @Override
+        public double applyAsDouble(double t, double u) {
+            return t + u;
+        }
+
+        @Override
+        public String name() {
+            return "add";
+        }
+
+        @Override
+        public boolean isAssociative() {
+            return true;
+        }
+
+        @Override
+        public double identity() {
+            return -0d;
+        }
+    };
+
+    /**
+     * Subtracts two doubles
+     */
+    public static NamedDoubleBinaryOperator doubleSubtract = new NamedDoubleBinaryOperator() {
+
+        @Override
+        public double applyAsDouble(double t, double u) {
+            return t - u;
+        }
+
+        @Override
+        public String name() {
+            return "diff";
+        }
+    };
+
+    /**
+     * Multiplies two doubles
+     */
+    public static NamedDoubleBinaryOperator doubleMultiply = new NamedDoubleBinaryOperator() {
+
+        @Override
+        public double applyAsDouble(double t, double u) {
+            return t * u;
+        }
+
+        @Override
+        public String name() {
+            return "mult";
+        }
+
+        @Override
+        public boolean isAssociative() {
+            return true;
+        }
+
+        @Override
+        public double identity() {
+            return 1;
+        }
+    };
+
+    /**
+     * Divides two doubles
+     */
+    public static NamedDoubleBinaryOperator doubleDivide = new NamedDoubleBinaryOperator() {
+
+        @Override
+        public double applyAsDouble(double t, double u) {
+            if (u == 0)
+                throw new ArithmeticException("Attempted Division By Zero.");
+
+            return t / u;
+        }
+
+        @Override
+        public String name() {
+            return "div";
+        }
+    };
+
     /**
      * Applies a given list of bifunctions -- functions that take two arguments of a
      * certain type and produce a single instance of that type -- to a list of
@@ -119,6 +280,795 @@ public class HigherOrderUtils {
         return args.get(args.size() - 1);
     }
 
+    /**
+     * The primitive version of {@link #zip(List, List)}. The operators are applied
+     * in the same iterative manner, and the result of each one is stored in
+     * <code>args</code> to be used by the next operator.
+     *
+     * @param args:      the arguments over which <code>operators</code> will be
+     *                   applied.
+     * @param operators: the list of operators that will be applied on
+     *                   <code>args</code>.
+     * @return the item in the last index of <code>args</code>, which has the final
+     *         result of all the operators being applied in sequence.
+     */
+    public static double zip(double[] args, List<NamedDoubleBinaryOperator> operators) {
+        return zip(args, operators, true);
+    }
+
+    /**
+     * The primitive version of {@link #zip(List, List)}, which can optionally
+     * leave <code>args</code> untouched. When <code>inPlace</code> is
+     * <code>false</code>, the running result is kept in a local variable instead
+     * of being stored back in <code>args</code>; the final result is the same.
+     *
+     * @param args:      the arguments over which <code>operators</code> will be
+     *                   applied.
+     * @param operators: the list of operators that will be applied on
+     *                   <code>args</code>.
+     * @param inPlace:   whether each intermediate result is stored in
+     *                   <code>args</code>, as {@link #zip(List, List)} does.
+     * @return the final result of all the operators being applied in sequence.
+     */
+    public static double zip(double[] args, List<NamedDoubleBinaryOperator> operators, boolean inPlace) {
+        if (args.length == 0)
+            throw new IllegalArgumentException("There must be at least 1 element in args.");
+
+        if (operators.size() < args.length - 1)
+            throw new IllegalArgumentException("There must be at least args.length - 1 operators.");
+
+        double result = args[0];
+
+        for (int i = 1; i < args.length; i++) {
+            result = operators.get(i - 1).applyAsDouble(result, args[i]);
+
+            if (inPlace)
+                args[i] = result;
+        }
+
+        return result;
+    }
+
+    // Number of rows each task of zipRows works on at a time.
+    private static final int ROW_BLOCK = 1 << 12;
+
+    /**
+     * Applies the same chain of operators to many independent rows of arguments
+     * at once. The arguments are given column by column:
+     * <code>columns[c][r]</code> is argument <code>c</code> of row
+     * <code>r</code>. The result for row <code>r</code> is what
+     * {@link #zip(double[], List)} would return for the arguments of that row.
+     *
+     * Rather than running the whole chain on one row after another, each operator
+     * is applied to a whole block of rows in a tight loop before moving on to the
+     * next operator. Blocks of rows are spread across all cores.
+     *
+     * @param columns:   the arguments, one array per argument position, all of
+     *                   the same length.
+     * @param operators: the list of operators that will be applied on each row.
+     * @param out:       the array to write the result of each row to, or
+     *                   <code>null</code> to allocate a new one.
+     * @return the array holding the result of row r at index r.
+     */
+    public static double[] zipRows(double[][] columns, List<NamedDoubleBinaryOperator> operators, double[] out) {
+        if (columns.length == 0)
+            throw new IllegalArgumentException("There must be at least 1 column in columns.");
+
+        int rows = columns[0].length;
+
+        for (double[] column : columns) {
+            if (column.length != rows)
+                throw new IllegalArgumentException("All columns must be of the same length.");
+        }
+
+        return zipRows(columns.length, rows, (c, from, to, acc) -> {
+            if (c == 0)
+                System.arraycopy(columns[0], from, acc, from, to - from);
+            else
+                applyToRows(operatorAt(operators, c), acc, columns[c], from, from, to);
+        }, operators, out);
+    }
+
+    /**
+     * The same as {@link #zipRows(double[][], List, double[])}, for arguments
+     * stored in a single flat array: argument <code>c</code> of row <code>r</code>
+     * is <code>values[c * stride + r]</code>.
+     *
+     * @param values:    the arguments, column after column.
+     * @param columns:   the number of arguments of each row.
+     * @param rows:      the number of rows.
+     * @param stride:    the distance between the starts of two columns, which
+     *                   must be at least <code>rows</code>.
+     * @param operators: the list of operators that will be applied on each row.
+     * @param out:       the array to write the result of each row to, or
+     *                   <code>null</code> to allocate a new one.
+     * @return the array holding the result of row r at index r.
+     */
+    public static double[] zipRows(double[] values, int columns, int rows, int stride,
+            List<NamedDoubleBinaryOperator> operators, double[] out) {
+        if (columns < 1)
+            throw new IllegalArgumentException("There must be at least 1 column in values.");
+
+        if (stride < rows || (long) (columns - 1) * stride + rows > values.length)
+            throw new IllegalArgumentException("values is too small for the given columns, rows and stride.");
+
+        return zipRows(columns, rows, (c, from, to, acc) -> {
+            if (c == 0)
+                System.arraycopy(values, from, acc, from, to - from);
+            else
+                applyToRows(operatorAt(operators, c), acc, values, c * stride + from, from, to);
+        }, operators, out);
+    }
+
+    /**
+     * Applies one column of a {@link #zipRows} evaluation to the rows
+     * <code>[from, to)</code>, storing the running results in <code>acc</code>.
+     */
+    private static interface ColumnStep {
+        void apply(int column, int from, int to, double[] acc);
+    }
+
+    private static double[] zipRows(int columns, int rows, ColumnStep step, List<NamedDoubleBinaryOperator> operators,
+            double[] out) {
+        if (operators.size() < columns - 1)
+            throw new IllegalArgumentException("There must be at least columns - 1 operators.");
+
+        if (out == null)
+            out = new double[rows];
+        else if (out.length < rows)
+            throw new IllegalArgumentException("out must hold at least one result per row.");
+
+        double[] acc = out;
+        int blocks = (rows + ROW_BLOCK - 1) / ROW_BLOCK;
+
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int from = b * ROW_BLOCK, to = Math.min(from + ROW_BLOCK, rows);
+
+            for (int c = 0; c < columns; c++)
+                step.apply(c, from, to, acc);
+        });
+
+        return out;
+    }
+
+    private static NamedDoubleBinaryOperator operatorAt(List<NamedDoubleBinaryOperator> operators, int column) {
+        return operators.get(column - 1);
+    }
+
+    /**
+     * Sets acc[r] = operator(acc[r], values[offset + r - from]) for every row r in
+     * <code>[from, to)</code>.
+     */
+    private static void applyToRows(NamedDoubleBinaryOperator operator, double[] acc, double[] values, int offset,
+            int from, int to) {
+        for (int r = from, v = offset; r < to; r++, v++)
+            acc[r] = operator.applyAsDouble(acc[r], values[v]);
+    }
+
+    // Runs of an associative operator shorter than this are not worth scanning in
+    // parallel.
+    private static final int PARALLEL_SCAN_THRESHOLD = 1 << 13;
+
+    /**
+     * A parallel version of {@link #zip(List, List)}, giving the same result and
+     * storing the same intermediate results in <code>args</code>. Wherever the
+     * same associative bifunction is applied many times in a row, that run of the
+     * chain is a prefix scan, and is computed with
+     * {@link Arrays#parallelPrefix(Object[], int, int, BinaryOperator)}. Every
+     * other step is applied sequentially, as in <code>zip</code>.
+     *
+     * Since a parallel scan groups the operations differently, floating-point
+     * results may differ from <code>zip</code> by rounding.
+     *
+     * @param args:        the arguments over which <code>bifunctions</code> will be
+     *                     applied.
+     * @param bifunctions: the list of bifunctions that will be applied on
+     *                     <code>args</code>.
+     * @param <T>:         the type parameter of the arguments (e.g., Integer,
+     *                     Double)
+     * @return the item in the last index of <code>args</code>.
+     */
+    public static <T> T zipParallel(List<T> args, List<NamedBiFunction<T, T, T>> bifunctions) {
+        if (args.size() == 0)
+            throw new IllegalArgumentException("There must be at least 1 element in args.");
+
+        if (bifunctions.size() < args.size() - 1)
+            throw new IllegalArgumentException("There must be at least args.size() - 1 bifunctions.");
+
+        @SuppressWarnings("unchecked")
+        T[] values = (T[]) args.toArray();
+        int i = 0;
+
+        while (i < values.length - 1) {
+            NamedBiFunction<T, T, T> bifunction = bifunctions.get(i);
+            int end = runEnd(bifunctions, i, values.length - 1);
+
+            if (end - i >= PARALLEL_SCAN_THRESHOLD) {
+                BinaryOperator<T> operator = bifunction::apply;
+                Arrays.parallelPrefix(values, i, end + 1, operator);
+            } else {
+                for (; i < end; i++)
+                    values[i + 1] = bifunction.apply(values[i], values[i + 1]);
+            }
+
+            i = end;
+        }
+
+        for (int k = 1; k < values.length; k++)
+            args.set(k, values[k]);
+
+        return values[values.length - 1];
+    }
+
+    /**
+     * The primitive version of {@link #zipParallel(List, List)}, which stores the
+     * intermediate results in <code>args</code>.
+     *
+     * @param args:      the arguments over which <code>operators</code> will be
+     *                   applied.
+     * @param operators: the list of operators that will be applied on
+     *                   <code>args</code>.
+     * @return the item in the last index of <code>args</code>.
+     */
+    public static double zipParallel(double[] args, List<NamedDoubleBinaryOperator> operators) {
+        if (args.length == 0)
+            throw new IllegalArgumentException("There must be at least 1 element in args.");
+
+        if (operators.size() < args.length - 1)
+            throw new IllegalArgumentException("There must be at least args.length - 1 operators.");
+
+        int i = 0;
+
+        while (i < args.length - 1) {
+            NamedDoubleBinaryOperator operator = operators.get(i);
+            int end = i + 1;
+
+            if (operator.isAssociative()) {
+                while (end < args.length - 1 && operators.get(end) == operator)
+                    end++;
+            }
+
+            if (end - i >= PARALLEL_SCAN_THRESHOLD) {
+                Arrays.parallelPrefix(args, i, end + 1, operator);
+            } else {
+                for (; i < end; i++)
+                    args[i + 1] = operator.applyAsDouble(args[i], args[i + 1]);
+            }
+
+            i = end;
+        }
+
+        return args[args.length - 1];
+    }
+
+    /**
+     * Returns the end of the run of steps starting at <code>start</code> that all
+     * apply the same associative bifunction, i.e., the index of the last argument
+     * that run writes to.
+     */
+    private static <T> int runEnd(List<NamedBiFunction<T, T, T>> bifunctions, int start, int limit) {
+        NamedBiFunction<T, T, T> bifunction = bifunctions.get(start);
+        int end = start + 1;
+
+        if (bifunction.isAssociative()) {
+            while (end < limit && bifunctions.get(end) == bifunction)
+                end++;
+        }
+
+        return end;
+    }
+
+    private static final int MAX_COMPILED_CHAINS = 256;
+
+    // Compiled chains, keyed by the sequence of names of their bifunctions. The
+    // least recently used chains are evicted once there are MAX_COMPILED_CHAINS.
+    private static final BoundedCache<ChainKey, CompiledChain<?>> compiledChains = new BoundedCache<>(
+            MAX_COMPILED_CHAINS);
+
+    /**
+     * Compiles a list of bifunctions into a reusable evaluator that gives the same
+     * results as calling {@link #zip(List, List)} with that list. Compiled chains
+     * are cached by the names of their bifunctions, so compiling a chain that has
+     * been seen before just returns the cached evaluator. A cached evaluator is
+     * only reused if it was built from the very same bifunction objects, so two
+     * different bifunctions that happen to share a name are never mixed up. The
+     * {@value #MAX_COMPILED_CHAINS} most recently used chains are kept.
+     *
+     * @param bifunctions: the list of bifunctions to compile.
+     * @param <T>:         the type parameter of the arguments (e.g., Integer,
+     *                     Double)
+     * @return the compiled evaluator.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompiledChain<T> compile(List<NamedBiFunction<T, T, T>> bifunctions) {
+        return (CompiledChain<T>) compiledChains.get(new ChainKey(bifunctions.toArray()),
+                key -> new CompiledChain<>(bifunctions));
+    }
+
+    /**
+     * The bifunctions of a chain, hashed by their names and equal only to a key
+     * holding the very same bifunction objects.
+     */
+    private static final class ChainKey {
+
+        private final Object[] steps;
+        private final int hash;
+
+        ChainKey(Object[] steps) {
+            this.steps = steps;
+
+            int hash = 1;
+            for (Object step : steps)
+                hash = 31 * hash + ((NamedBiFunction<?, ?, ?>) step).name().hashCode();
+
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ChainKey))
+                return false;
+
+            Object[] other = ((ChainKey) o).steps;
+
+            if (other.length != steps.length)
+                return false;
+
+            for (int i = 0; i < steps.length; i++) {
+                if (other[i] != steps[i])
+                    return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A list of bifunctions compiled by {@link #compile(List)}. For chains of up
+     * to {@value #MAX_FUSED_LENGTH} bifunctions, {@link #evaluate} runs a single
+     * method handle that reads each argument from the list and passes it to the
+     * next bifunction, with every bifunction bound in as a constant. Once such a
+     * handle has been called often enough, the JVM specializes it for this chain,
+     * so the JIT compiles the whole chain as one unit with direct calls to each
+     * bifunction instead of one shared, megamorphic <code>apply</code> call.
+     * Longer chains, and {@link #zip}, loop over an array of the bifunctions.
+     */
+    static class CompiledChain<T> {
+
+        static final int MAX_FUSED_LENGTH = 200;
+
+        private static final MethodHandle APPLY, GET;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                APPLY = lookup.findVirtual(BiFunction.class, "apply",
+                        MethodType.methodType(Object.class, Object.class, Object.class));
+                GET = lookup.findVirtual(List.class, "get", MethodType.methodType(Object.class, int.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final NamedBiFunction<T, T, T>[] steps;
+
+        // Takes the argument list and returns the result, or is null for chains
+        // longer than MAX_FUSED_LENGTH.
+        private final MethodHandle fused;
+
+        private CompiledChain(List<NamedBiFunction<T, T, T>> bifunctions) {
+            @SuppressWarnings({ "rawtypes", "unchecked" })
+            NamedBiFunction<T, T, T>[] steps = bifunctions.toArray(new NamedBiFunction[0]);
+            this.steps = steps;
+            this.fused = steps.length <= MAX_FUSED_LENGTH ? fuse(steps) : null;
+        }
+
+        /**
+         * Builds the handle f[n-1](... f[1](f[0](args.get(0), args.get(1)),
+         * args.get(2)) ..., args.get(n)), of type <code>(List)Object</code>.
+         */
+        private static MethodHandle fuse(BiFunction<?, ?, ?>[] steps) {
+            MethodType type = MethodType.methodType(Object.class, List.class);
+            MethodHandle chain = MethodHandles.insertArguments(GET, 1, 0);
+
+            for (int i = 0; i < steps.length; i++) {
+                MethodHandle step = MethodHandles.filterArguments(APPLY.bindTo(steps[i]), 0, chain,
+                        MethodHandles.insertArguments(GET, 1, i + 1));
+                chain = MethodHandles.permuteArguments(step, type, 0, 0);
+            }
+
+            return chain;
+        }
+
+        /**
+         * @return the number of bifunctions in this chain.
+         */
+        public int length() {
+            return steps.length;
+        }
+
+        /**
+         * Applies this chain to <code>args</code> exactly like
+         * {@link HigherOrderUtils#zip(List, List)}, storing each intermediate result
+         * back in <code>args</code>.
+         *
+         * @param args: the arguments over which the chain will be applied.
+         * @return the item in the last index of <code>args</code>.
+         */
+        public T zip(List<T> args) {
+            check(args.size());
+
+            T result = args.get(0);
+
+            for (int i = 1; i < args.size(); i++) {
+                result = steps[i - 1].apply(result, args.get(i));
+                args.set(i, result);
+            }
+
+            return result;
+        }
+
+        /**
+         * Applies this chain to <code>args</code> and returns only the final result,
+         * leaving <code>args</code> untouched.
+         *
+         * @param args: the arguments over which the chain will be applied, which
+         *              must number exactly one more than the bifunctions.
+         * @return the final result of all the bifunctions being applied in sequence.
+         */
+        @SuppressWarnings("unchecked")
+        public T evaluate(List<T> args) {
+            if (fused != null && args.size() == steps.length + 1) {
+                try {
+                    return (T) (Object) fused.invokeExact((List<?>) args);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            check(args.size());
+
+            T result = args.get(0);
+            for (int i = 1; i < args.size(); i++)
+                result = steps[i - 1].apply(result, args.get(i));
+
+            return result;
+        }
+
+        private void check(int size) {
+            if (size == 0)
+                throw new IllegalArgumentException("There must be at least 1 element in args.");
+
+            if (steps.length < size - 1)
+                throw new IllegalArgumentException("There must be at least args.size() - 1 bifunctions.");
+        }
+    }
+
+    /**
+     * Wraps a pure function so that its results are cached, keeping at most
+     * <code>maximumSize</code> of them and evicting the least recently used ones
+     * first.
+     *
+     * @param function:    the function to memoize.
+     * @param maximumSize: the largest number of results to keep.
+     * @param <T>:         the type of the argument.
+     * @param <R>:         the type of the result.
+     * @return the memoized function.
+     */
+    public static <T, R> Memoized<T, R> memoize(Function<T, R> function, int maximumSize) {
+        return new Memoized<>(function, maximumSize);
+    }
+
+    /**
+     * Wraps a pure bifunction so that its results are cached, keeping at most
+     * <code>maximumSize</code> of them and evicting the least recently used ones
+     * first. The result has the same name, associativity and identity as the
+     * bifunction, so it can be used in {@link #zip(List, List)} in its place.
+     *
+     * @param bifunction:  the bifunction to memoize.
+     * @param maximumSize: the largest number of results to keep.
+     * @param <T>:         the type of the first argument.
+     * @param <U>:         the type of the second argument.
+     * @param <R>:         the type of the result.
+     * @return the memoized bifunction.
+     */
+    public static <T, U, R> MemoizedBiFunction<T, U, R> memoize(NamedBiFunction<T, U, R> bifunction, int maximumSize) {
+        return new MemoizedBiFunction<>(bifunction, maximumSize);
+    }
+
+    /**
+     * Returns a supplier that calls the given supplier the first time it is asked
+     * for a value, and hands out that same value from then on.
+     *
+     * @param supplier: the supplier to defer.
+     * @param <T>:      the type of the value.
+     * @return the lazy supplier.
+     */
+    public static <T> Supplier<T> lazy(Supplier<T> supplier) {
+        return new Supplier<T>() {
+            private volatile boolean done;
+            private T value;
+
+            @Override
+            public T get() {
+                if (!done) {
+                    synchronized (this) {
+                        if (!done) {
+                            value = supplier.get();
+                            done = true;
+                        }
+                    }
+                }
+
+                return value;
+            }
+        };
+    }
+
+    /**
+     * The counters of a memoization cache at one point in time.
+     */
+    static final class CacheStats {
+
+        private final long hits, misses, evictions;
+
+        CacheStats(long hits, long misses, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        /**
+         * @return the number of calls answered from the cache.
+         */
+        public long hits() {
+            return hits;
+        }
+
+        /**
+         * @return the number of calls that had to compute their result.
+         */
+        public long misses() {
+            return misses;
+        }
+
+        /**
+         * @return the number of results dropped to make room for new ones.
+         */
+        public long evictions() {
+            return evictions;
+        }
+
+        /**
+         * @return the fraction of calls answered from the cache, or 0 if there have
+         *         been none.
+         */
+        public double hitRate() {
+            long calls = hits + misses;
+            return calls == 0 ? 0 : (double) hits / calls;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStats[hits: " + hits + ", misses: " + misses + ", evictions: " + evictions + "]";
+        }
+    }
+
+    /**
+     * A bounded cache shared by many threads. Keys are spread over a fixed number
+     * of segments, each a {@link LinkedHashMap} in access order behind its own
+     * lock, so eviction is least recently used within a segment and threads
+     * working on different keys rarely wait for each other. Results are computed
+     * outside the lock; two threads missing on the same key at once may both
+     * compute it, which is harmless for pure functions.
+     */
+    private static final class BoundedCache<K, V> {
+
+        private static final int MAX_SEGMENTS = 16;
+        private static final Object NULL = new Object();
+
+        private final LinkedHashMap<K, Object>[] segments;
+        private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder();
+
+        BoundedCache(int maximumSize) {
+            if (maximumSize < 1)
+                throw new IllegalArgumentException("maximumSize must be at least 1.");
+
+            int count = Integer.highestOneBit(Math.min(MAX_SEGMENTS, maximumSize));
+            @SuppressWarnings({ "rawtypes", "unchecked" })
+            LinkedHashMap<K, Object>[] segments = new LinkedHashMap[count];
+            this.segments = segments;
+
+            for (int i = 0; i < count; i++) {
+                // Share out the remainder so the capacities add up to maximumSize.
+                int capacity = maximumSize / count + (i < maximumSize % count ? 1 : 0);
+
+                segments[i] = new LinkedHashMap<K, Object>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<K, Object> eldest) {
+                        if (size() <= capacity)
+                            return false;
+
+                        evictions.increment();
+                        return true;
+                    }
+                };
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(K key, Function<? super K, ? extends V> compute) {
+            int h = key == null ? 0 : key.hashCode();
+            LinkedHashMap<K, Object> segment = segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+            Object cached;
+
+            synchronized (segment) {
+                cached = segment.get(key);
+            }
+
+            if (cached != null) {
+                hits.increment();
+                return cached == NULL ? null : (V) cached;
+            }
+
+            misses.increment();
+            V value = compute.apply(key);
+
+            synchronized (segment) {
+                segment.put(key, value == null ? NULL : value);
+            }
+
+            return value;
+        }
+
+        int size() {
+            int size = 0;
+
+            for (LinkedHashMap<K, Object> segment : segments) {
+                synchronized (segment) {
+                    size += segment.size();
+                }
+            }
+
+            return size;
+        }
+
+        void clear() {
+            for (LinkedHashMap<K, Object> segment : segments) {
+                synchronized (segment) {
+                    segment.clear();
+                }
+            }
+        }
+
+        CacheStats stats() {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+
+    /**
+     * A function whose results are cached, made by {@link #memoize(Function, int)}.
+     */
+    static final class Memoized<T, R> implements Function<T, R> {
+
+        private final Function<T, R> function;
+        private final BoundedCache<T, R> cache;
+
+        private Memoized(Function<T, R> function, int maximumSize) {
+            this.function = function;
+            this.cache = new BoundedCache<>(maximumSize);
+        }
+
+        @Override
+        public R apply(T t) {
+            return cache.get(t, function);
+        }
+
+        /**
+         * @param t: the argument.
+         * @return a supplier that applies this function to <code>t</code> the first
+         *         time it is asked for the result.
+         */
+        public Supplier<R> lazy(T t) {
+            return HigherOrderUtils.lazy(() -> apply(t));
+        }
+
+        /**
+         * @return the number of results currently cached.
+         */
+        public int size() {
+            return cache.size();
+        }
+
+        /**
+         * Drops every cached result. The statistics are kept.
+         */
+        public void clear() {
+            cache.clear();
+        }
+
+        /**
+         * @return the hits, misses and evictions so far.
+         */
+        public CacheStats stats() {
+            return cache.stats();
+        }
+    }
+
+    /**
+     * A named bifunction whose results are cached, made by
+     * {@link #memoize(NamedBiFunction, int)}.
+     */
+    static final class MemoizedBiFunction<T, U, R> implements NamedBiFunction<T, U, R> {
+
+        private final NamedBiFunction<T, U, R> bifunction;
+        private final BoundedCache<List<Object>, R> cache;
+
+        private MemoizedBiFunction(NamedBiFunction<T, U, R> bifunction, int maximumSize) {
+            this.bifunction = bifunction;
+            this.cache = new BoundedCache<>(maximumSize);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public R apply(T t, U u) {
+            return cache.get(Arrays.asList(t, u), key -> bifunction.apply((T) key.get(0), (U) key.get(1)));
+        }
+
+        /**
+         * @param t: the first argument.
+         * @param u: the second argument.
+         * @return a supplier that applies this bifunction to <code>t</code> and
+         *         <code>u</code> the first time it is asked for the result.
+         */
+        public Supplier<R> lazy(T t, U u) {
+            return HigherOrderUtils.lazy(() -> apply(t, u));
+        }
+
+        @Override
+        public String name() {
+            return bifunction.name();
+        }
+
+        @Override
+        public boolean isAssociative() {
+            return bifunction.isAssociative();
+        }
+
+        @Override
+        public R identity() {
+            return bifunction.identity();
+        }
+
+        /**
+         * @return the number of results currently cached.
+         */
+        public int size() {
+            return cache.size();
+        }
+
+        /**
+         * Drops every cached result. The statistics are kept.
+         */
+        public void clear() {
+            cache.clear();
+        }
+
+        /**
+         * @return the hits, misses and evictions so far.
+         */
+        public CacheStats stats() {
+            return cache.stats();
+        }
+    }
+
     static class FunctionComposition<T, U, R> {
 
         BiFunction<Function<T, U>, Function<U, R>, Function<T, R>> composition = new BiFunction<Function<T, U>, Function<U, R>, Function<T, R>>() {
@@ -133,5 +1083,293 @@ public class HigherOrderUtils {
             }
         };
 
+        /**
+         * Builds a composition as a graph of named functions, rather than as nested
+         * anonymous functions like {@link #composition}. Applying a function to a
+         * node returns the node that already exists for the same name and arguments,
+         * if there is one, so an identical sub-composition is only ever evaluated
+         * once. The functions must therefore be pure, and a name must always stand
+         * for the same function object.
+         *
+         * {@link #compile} turns the part of the graph a result depends on into a
+         * single evaluator. Runs of functions that each feed only the next one are
+         * flattened into one array of steps, and evaluation is a loop over those
+         * steps, so even very deep compositions never recurse.
+         *
+         * @param <T> the type of the input of the composition.
+         */
+        static class Graph<T> {
+
+            private final List<Node<?>> nodes = new ArrayList<>();
+            private final Map<List<Object>, Node<?>> interned = new HashMap<>();
+            private final Map<String, Object> functions = new HashMap<>();
+
+            Graph() {
+                nodes.add(new Node<T>(this, 0, null, null, null, null));
+            }
+
+            /**
+             * @return the node standing for the input of the composition.
+             */
+            @SuppressWarnings("unchecked")
+            Node<T> input() {
+                return (Node<T>) nodes.get(0);
+            }
+
+            /**
+             * @return the number of distinct nodes in this graph, including the
+             *         input.
+             */
+            int size() {
+                return nodes.size();
+            }
+
+            @SuppressWarnings("unchecked")
+            private <R> Node<R> intern(String name, Object function, Node<?> first, Node<?> second) {
+                if (first.graph != this || (second != null && second.graph != this))
+                    throw new IllegalArgumentException("All nodes must belong to the same graph.");
+
+                Object known = functions.putIfAbsent(name, function);
+                if (known != null && known != function)
+                    throw new IllegalArgumentException("The name " + name + " already stands for a different function.");
+
+                List<Object> key = second == null ? Arrays.asList(name, first.id)
+                        : Arrays.asList(name, first.id, second.id);
+
+                Node<?> node = interned.get(key);
+
+                if (node == null) {
+                    node = new Node<>(this, nodes.size(), name, function, first, second);
+                    nodes.add(node);
+                    interned.put(key, node);
+                }
+
+                return (Node<R>) node;
+            }
+
+            /**
+             * Compiles everything the given node depends on into a function of the
+             * input. Later changes to this graph do not affect the compiled function.
+             *
+             * @param result: the node whose value the function returns.
+             * @param <R>:    the type of the result.
+             * @return the compiled function.
+             */
+            @SuppressWarnings("unchecked")
+            <R> Function<T, R> compile(Node<R> result) {
+                if (result.graph != this)
+                    throw new IllegalArgumentException("All nodes must belong to the same graph.");
+
+                if (result.id == 0)
+                    return t -> (R) t;
+
+                // A node only ever depends on nodes created before it, so one pass
+                // from the result down finds everything it needs and counts the uses.
+                boolean[] live = new boolean[result.id + 1];
+                int[] uses = new int[result.id + 1];
+                live[result.id] = true;
+
+                for (int i = result.id; i > 0; i--) {
+                    if (!live[i])
+                        continue;
+
+                    Node<?> node = nodes.get(i);
+                    live[node.first.id] = true;
+                    uses[node.first.id]++;
+
+                    if (node.second != null) {
+                        live[node.second.id] = true;
+                        uses[node.second.id]++;
+                    }
+                }
+
+                // The instruction computing each node, and the position of the node in
+                // it, which is -1 for a bifunction.
+                int[] instructionOf = new int[result.id + 1];
+                List<List<Function<Object, Object>>> runs = new ArrayList<>();
+                List<BiFunction<Object, Object, Object>> bifunctions = new ArrayList<>();
+                List<int[]> operands = new ArrayList<>();
+                boolean[] endsRun = new boolean[result.id + 1];
+
+                for (int i = 1; i <= result.id; i++) {
+                    if (!live[i])
+                        continue;
+
+                    Node<?> node = nodes.get(i);
+                    int a = node.first.id;
+
+                    if (node.second == null && a != 0 && uses[a] == 1 && endsRun[a]) {
+                        // The argument is the end of a run used by nothing else, so
+                        // this function just extends that run.
+                        int instruction = instructionOf[a];
+                        runs.get(instruction).add((Function<Object, Object>) node.function);
+                        instructionOf[i] = instruction;
+                        endsRun[i] = true;
+                        continue;
+                    }
+
+                    instructionOf[i] = runs.size();
+
+                    if (node.second == null) {
+                        List<Function<Object, Object>> run = new ArrayList<>();
+                        run.add((Function<Object, Object>) node.function);
+                        runs.add(run);
+                        bifunctions.add(null);
+                        operands.add(new int[] { slot(a, instructionOf), -1 });
+                        endsRun[i] = true;
+                    } else {
+                        runs.add(null);
+                        bifunctions.add((BiFunction<Object, Object, Object>) node.function);
+                        operands.add(new int[] { slot(a, instructionOf), slot(node.second.id, instructionOf) });
+                    }
+                }
+
+                Object[] steps = new Object[runs.size()];
+                int[] firsts = new int[steps.length], seconds = new int[steps.length];
+
+                for (int k = 0; k < steps.length; k++) {
+                    if (runs.get(k) == null) {
+                        steps[k] = bifunctions.get(k);
+                    } else {
+                        @SuppressWarnings({ "rawtypes", "unchecked" })
+                        Function<Object, Object>[] run = runs.get(k).toArray(new Function[0]);
+                        steps[k] = run;
+                    }
+
+                    firsts[k] = operands.get(k)[0];
+                    seconds[k] = operands.get(k)[1];
+                }
+
+                if (steps.length == 1 && seconds[0] < 0)
+                    return new Chain<>((Function<Object, Object>[]) steps[0]);
+
+                return new Program<>(steps, firsts, seconds);
+            }
+
+            /**
+             * Slot 0 holds the input, and slot k + 1 the result of instruction k.
+             */
+            private static int slot(int node, int[] instructionOf) {
+                return node == 0 ? 0 : instructionOf[node] + 1;
+            }
+        }
+
+        /**
+         * A value in a {@link Graph}: either the input, or a named function applied
+         * to one or two other nodes.
+         *
+         * @param <V> the type of the value.
+         */
+        static final class Node<V> {
+
+            private final Graph<?> graph;
+            private final int id;
+            private final String name;
+            private final Object function;
+            private final Node<?> first, second;
+
+            private Node(Graph<?> graph, int id, String name, Object function, Node<?> first, Node<?> second) {
+                this.graph = graph;
+                this.id = id;
+                this.name = name;
+                this.function = function;
+                this.first = first;
+                this.second = second;
+            }
+
+            /**
+             * @param name:     the name of the function.
+             * @param function: the function to apply to this node.
+             * @param <R>:      the type of the result.
+             * @return the node for the function applied to this one.
+             */
+            <R> Node<R> then(String name, Function<? super V, ? extends R> function) {
+                return graph.intern(name, function, this, null);
+            }
+
+            /**
+             * @param bifunction: the bifunction to apply.
+             * @param other:      the node giving the second argument of the
+             *                    bifunction.
+             * @param <U>:        the type of the second argument.
+             * @param <R>:        the type of the result.
+             * @return the node for the bifunction applied to this node and the other.
+             */
+            <U, R> Node<R> combine(NamedBiFunction<? super V, ? super U, ? extends R> bifunction, Node<U> other) {
+                return graph.intern(bifunction.name(), bifunction, this, other);
+            }
+
+            @Override
+            public String toString() {
+                if (id == 0)
+                    return "input";
+
+                return name + "(" + first + (second == null ? "" : ", " + second) + ")";
+            }
+        }
+
+        /**
+         * A compiled graph that is a single run of functions, each applied to the
+         * result of the one before.
+         */
+        private static final class Chain<T, R> implements Function<T, R> {
+
+            private final Function<Object, Object>[] steps;
+
+            Chain(Function<Object, Object>[] steps) {
+                this.steps = steps;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public R apply(T t) {
+                Object value = t;
+
+                for (Function<Object, Object> step : steps)
+                    value = step.apply(value);
+
+                return (R) value;
+            }
+        }
+
+        /**
+         * Any other compiled graph. Each instruction is either a run of functions or
+         * a bifunction, and reads its arguments from the slots of earlier
+         * instructions; the last instruction gives the result.
+         */
+        private static final class Program<T, R> implements Function<T, R> {
+
+            private final Object[] steps;
+            private final int[] firsts, seconds;
+
+            Program(Object[] steps, int[] firsts, int[] seconds) {
+                this.steps = steps;
+                this.firsts = firsts;
+                this.seconds = seconds;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public R apply(T t) {
+                Object[] slots = new Object[steps.length + 1];
+                slots[0] = t;
+
+                for (int k = 0; k < steps.length; k++) {
+                    if (seconds[k] < 0) {
+                        Object value = slots[firsts[k]];
+
+                        for (Function<Object, Object> step : (Function<Object, Object>[]) steps[k])
+                            value = step.apply(value);
+
+                        slots[k + 1] = value;
+                    } else {
+                        slots[k + 1] = ((BiFunction<Object, Object, Object>) steps[k]).apply(slots[firsts[k]],
+                                slots[seconds[k]]);
+                    }
+                }
+
+                return (R) slots[steps.length];
+            }
+        }
     }
 }
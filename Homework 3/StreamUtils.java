@@ -1,7 +1,36 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Homework 3
@@ -14,8 +43,289 @@ public class StreamUtils {
 	 *         that start with a capital letter.
 	 */
 	public static Collection<String> capitalized(Collection<String> strings) {
-		return strings.stream().filter((element) -> element.charAt(0) >= 65 && element.charAt(0) <= 90)
-				.collect(Collectors.toList());
+		return strings.stream().filter(StreamUtils::isCapitalized).collect(Collectors.toList());
+	}
+
+	private static boolean isCapitalized(String s) {
+		return isCapital(s.charAt(0));
+	}
+
+	private static boolean isCapital(int c) {
+		return c >= 65 && c <= 90;
+	}
+
+	/**
+	 * Receives the tokens found by the scanning variants of {@link #capitalized},
+	 * as the offset of their first character and the offset just after their
+	 * last.
+	 */
+	@FunctionalInterface
+	public interface TokenConsumer {
+		void accept(long start, long end);
+	}
+
+	/**
+	 * Finds the tokens between <code>text.position()</code> and
+	 * <code>text.limit()</code> that start with a capital letter, without creating
+	 * any <code>String</code>s. Tokens are the runs of characters between
+	 * delimiters; empty ones are skipped. The buffer's position is left unchanged.
+	 *
+	 * @param text:      the delimited tokens.
+	 * @param delimiter: the character separating the tokens, e.g., '\n'.
+	 * @param consumer:  receives the indices into <code>text</code> where each
+	 *                   capitalized token starts and ends.
+	 * @return the number of capitalized tokens.
+	 */
+	public static long capitalized(CharBuffer text, char delimiter, TokenConsumer consumer) {
+		CapitalizedTokens tokens = new CapitalizedTokens(text, delimiter);
+		long found = 0;
+
+		while (tokens.next()) {
+			consumer.accept(tokens.start(), tokens.end());
+			found++;
+		}
+
+		return found;
+	}
+
+	/**
+	 * An iterator over the tokens of a <code>CharBuffer</code> that start with a
+	 * capital letter, as found by {@link StreamUtils#capitalized(CharBuffer, char,
+	 * TokenConsumer)}. Moving to the next token allocates nothing.
+	 */
+	public static final class CapitalizedTokens {
+
+		private final CharBuffer text;
+		private final char delimiter;
+		private int position, start = -1, end = -1;
+
+		public CapitalizedTokens(CharBuffer text, char delimiter) {
+			this.text = text;
+			this.delimiter = delimiter;
+			this.position = text.position();
+		}
+
+		/**
+		 * Moves to the next capitalized token.
+		 *
+		 * @return <code>false</code> if there are no more.
+		 */
+		public boolean next() {
+			int limit = text.limit();
+
+			while (position < limit) {
+				while (position < limit && text.get(position) == delimiter)
+					position++;
+
+				if (position == limit)
+					break;
+
+				int first = position;
+
+				while (position < limit && text.get(position) != delimiter)
+					position++;
+
+				if (isCapital(text.get(first))) {
+					start = first;
+					end = position;
+					return true;
+				}
+			}
+
+			start = end = -1;
+			return false;
+		}
+
+		/**
+		 * @return the index of the first character of the current token.
+		 */
+		public int start() {
+			return start;
+		}
+
+		/**
+		 * @return the index just after the last character of the current token.
+		 */
+		public int end() {
+			return end;
+		}
+
+		/**
+		 * @return a view of the current token that shares the characters of the
+		 *         buffer.
+		 */
+		public CharBuffer slice() {
+			return text.duplicate().limit(end).position(start).slice();
+		}
+	}
+
+	// The part of a file that is mapped and scanned at a time.
+	private static final long FILE_CHUNK = 1L << 26;
+
+	// The most elements an array can safely be allocated with.
+	private static final long MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Finds the tokens of a file that start with a capital letter, by mapping the
+	 * file into memory one chunk at a time and testing the first byte of each
+	 * token in place. The file is read as ASCII or UTF-8, in which the bytes of
+	 * the capital letters A to Z never occur inside other characters. Nothing is
+	 * kept per token, so files of any size can be scanned.
+	 *
+	 * @param file:      the file of delimited tokens.
+	 * @param delimiter: the byte separating the tokens, e.g., '\n'.
+	 * @param consumer:  receives the file offsets where each capitalized token
+	 *                   starts and ends, in file order, on the calling thread.
+	 * @return the number of capitalized tokens.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static long capitalized(Path file, byte delimiter, TokenConsumer consumer) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long found = 0;
+
+			for (long from = 0; from < size; from += FILE_CHUNK)
+				found += scanChunk(channel, size, from, Math.min(size, from + FILE_CHUNK), delimiter, consumer);
+
+			return found;
+		}
+	}
+
+	/**
+	 * Finds the same tokens as {@link #capitalized(Path, byte, TokenConsumer)},
+	 * but scans the chunks of the file in parallel and collects the offsets into
+	 * one array. A token belongs to the chunk it starts in.
+	 *
+	 * @param file:      the file of delimited tokens.
+	 * @param delimiter: the byte separating the tokens, e.g., '\n'.
+	 * @return the file offsets where each capitalized token starts and ends, as
+	 *         <code>start0, end0, start1, end1, ...</code> in file order.
+	 * @throws IOException              if the file cannot be read.
+	 * @throws IllegalArgumentException if the file has too many capitalized
+	 *                                  tokens for their offsets to fit in an
+	 *                                  array.
+	 */
+	public static long[] capitalizedOffsets(Path file, byte delimiter) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			int chunks = (int) ((size + FILE_CHUNK - 1) / FILE_CHUNK);
+
+			long[][] parts = IntStream.range(0, chunks).parallel().mapToObj(i -> {
+				Offsets offsets = new Offsets();
+
+				try {
+					scanChunk(channel, size, i * FILE_CHUNK, Math.min(size, (i + 1) * FILE_CHUNK), delimiter, offsets);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+
+				return Arrays.copyOf(offsets.values, offsets.size);
+			}).toArray(long[][]::new);
+
+			long total = 0;
+			for (long[] part : parts)
+				total += part.length;
+
+			if (total > MAX_ARRAY_LENGTH)
+				throw new IllegalArgumentException("Too many capitalized tokens to return as an array: " + total / 2);
+
+			long[] result = new long[(int) total];
+			int at = 0;
+
+			for (long[] part : parts) {
+				System.arraycopy(part, 0, result, at, part.length);
+				at += part.length;
+			}
+
+			return result;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Scans the tokens starting in <code>[from, to)</code>. The byte before
+	 * <code>from</code> is mapped too, to tell whether the chunk starts in the
+	 * middle of a token, which belongs to the chunk before.
+	 *
+	 * @return the number of capitalized tokens found.
+	 */
+	private static long scanChunk(FileChannel channel, long size, long from, long to, byte delimiter,
+			TokenConsumer consumer) throws IOException {
+		long base = Math.max(0, from - 1);
+		MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, base, to - base);
+		int limit = bytes.limit();
+		int i = (int) (from - base);
+		long found = 0;
+
+		if (from > 0 && bytes.get(0) != delimiter) {
+			while (i < limit && bytes.get(i) != delimiter)
+				i++;
+		}
+
+		while (i < limit) {
+			while (i < limit && bytes.get(i) == delimiter)
+				i++;
+
+			if (i == limit)
+				break;
+
+			int first = i;
+
+			while (i < limit && bytes.get(i) != delimiter)
+				i++;
+
+			if (isCapital(bytes.get(first))) {
+				long end = base + i;
+
+				// The last token may run on into the next chunk.
+				if (i == limit && end < size)
+					end = tokenEnd(channel, size, end, delimiter);
+
+				consumer.accept(base + first, end);
+				found++;
+			}
+		}
+
+		return found;
+	}
+
+	private static long tokenEnd(FileChannel channel, long size, long position, byte delimiter) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+		while (position < size) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+
+			if (read < 0)
+				break;
+
+			for (int j = 0; j < read; j++) {
+				if (buffer.get(j) == delimiter)
+					return position + j;
+			}
+
+			position += read;
+		}
+
+		return size;
+	}
+
+	/**
+	 * A growable array of start and end offsets.
+	 */
+	private static final class Offsets implements TokenConsumer {
+		long[] values = new long[64];
+		int size;
+
+		@Override
+		public void accept(long start, long end) {
+			if (size + 2 > values.length)
+				values = Arrays.copyOf(values, values.length * 2);
+
+			values[size++] = start;
+			values[size++] = end;
+		}
 	}
 
 	/**
@@ -54,10 +364,349 @@ public class StreamUtils {
 	 */
 	public static <T extends Comparable<T>> T least(Collection<T> items, boolean from_start) {
 		return items.stream()
-				.reduce((accumulator,
-						element) -> (element.compareTo(accumulator) < 0)
-								|| (element.compareTo(accumulator) == 0 && !from_start) ? element : accumulator)
-				.orElse(null);
+				.reduce((accumulator, element) -> {
+					int c = element.compareTo(accumulator);
+					return c < 0 || (c == 0 && !from_start) ? element : accumulator;
+				}).orElse(null);
+	}
+
+	// Below this many elements, a part of the collection is searched on the
+	// current thread.
+	private static final long SEQUENTIAL_THRESHOLD = 1 << 13;
+
+	/**
+	 * The same as {@link #longest}, but searches the collection on all cores. The
+	 * result is exactly the element <code>longest</code> would return.
+	 *
+	 * @param strings:    the given collection of <code>String</code>s.
+	 * @param from_start: a <code>boolean</code> flag that decides how ties are
+	 *                    broken, as in {@link #longest}.
+	 * @return the longest <code>String</code> in the given collection, where ties
+	 *         are broken based on <code>from_start</code>.
+	 */
+	public static String longestParallel(Collection<String> strings, boolean from_start) {
+		return best(strings, Comparator.comparingInt(String::length).reversed(), from_start);
+	}
+
+	/**
+	 * The same as {@link #least}, but searches the collection on all cores. The
+	 * result is exactly the element <code>least</code> would return.
+	 *
+	 * @param items:      the given collection of elements
+	 * @param from_start: a <code>boolean</code> flag that decides how ties are
+	 *                    broken, as in {@link #least}.
+	 * @param <T>:        the type parameter of the collection.
+	 * @return the least element in <code>items</code>, where ties are broken based
+	 *         on <code>from_start</code>.
+	 */
+	public static <T extends Comparable<T>> T leastParallel(Collection<T> items, boolean from_start) {
+		return best(items, Comparator.<T>naturalOrder(), from_start);
+	}
+
+	/**
+	 * Finds the least element according to <code>order</code>. Ties are broken by
+	 * the index of the element in encounter order, which is only known for
+	 * collections whose spliterators keep their order and exact sizes when split;
+	 * anything else is searched sequentially.
+	 */
+	private static <T> T best(Collection<T> items, Comparator<? super T> order, boolean from_start) {
+		Spliterator<T> spliterator = items.spliterator();
+
+		if (!spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.SUBSIZED)
+				|| spliterator.getExactSizeIfKnown() < 2 * SEQUENTIAL_THRESHOLD)
+			return BestTask.search(spliterator, 0, order, from_start).element;
+
+		long threshold = Math.max(SEQUENTIAL_THRESHOLD,
+				spliterator.getExactSizeIfKnown() / (4L * ForkJoinPool.getCommonPoolParallelism()));
+
+		return ForkJoinPool.commonPool().invoke(new BestTask<>(spliterator, 0, order, from_start, threshold)).element;
+	}
+
+	/**
+	 * The same as {@link #least}, for elements ordered by a non-negative length,
+	 * such as {@link StringWrapper}s: the lengths are compared as
+	 * <code>int</code>s, without calling <code>compareTo</code>.
+	 *
+	 * @param items:      the given collection of elements
+	 * @param length:     gives the length of an element.
+	 * @param from_start: a <code>boolean</code> flag that decides how ties are
+	 *                    broken, as in {@link #least}.
+	 * @param <T>:        the type parameter of the collection.
+	 * @return the shortest element in <code>items</code>, where ties are broken
+	 *         based on <code>from_start</code>.
+	 * @throws IllegalArgumentException if any length is negative.
+	 */
+	public static <T> T leastByLength(Collection<T> items, ToIntFunction<? super T> length, boolean from_start) {
+		Iterator<T> it = items.iterator();
+
+		if (!it.hasNext())
+			return null;
+
+		T least = it.next();
+		int leastLength = checkedLength(length, least);
+
+		while (it.hasNext()) {
+			T item = it.next();
+			int l = checkedLength(length, item);
+
+			if (l < leastLength || (l == leastLength && !from_start)) {
+				least = item;
+				leastLength = l;
+			}
+		}
+
+		return least;
+	}
+
+	/**
+	 * The same as {@link #leastByLength}, but searches the collection on all
+	 * cores, like {@link #leastParallel}.
+	 *
+	 * @param items:      the given collection of elements
+	 * @param length:     gives the length of an element.
+	 * @param from_start: a <code>boolean</code> flag that decides how ties are
+	 *                    broken, as in {@link #least}.
+	 * @param <T>:        the type parameter of the collection.
+	 * @return the shortest element in <code>items</code>, where ties are broken
+	 *         based on <code>from_start</code>.
+	 * @throws IllegalArgumentException if any length is negative.
+	 */
+	public static <T> T leastByLengthParallel(Collection<T> items, ToIntFunction<? super T> length,
+			boolean from_start) {
+		return best(items, Comparator.comparingInt(item -> checkedLength(length, item)), from_start);
+	}
+
+	private static <T> int checkedLength(ToIntFunction<? super T> length, T item) {
+		int l = length.applyAsInt(item);
+
+		if (l < 0)
+			throw new IllegalArgumentException("Lengths must not be negative.");
+
+		return l;
+	}
+
+	/**
+	 * Sorts elements by a non-negative length, such as {@link StringWrapper}s, in
+	 * linear time with a counting sort over the lengths. The lengths are read
+	 * once per element into an <code>int</code> array. Elements of the same
+	 * length keep their encounter order if <code>from_start</code> is
+	 * <code>true</code>, and are reversed otherwise, so the first element of the
+	 * result is always the one {@link #least} returns.
+	 *
+	 * @param items:      the given collection of elements
+	 * @param length:     gives the length of an element.
+	 * @param from_start: a <code>boolean</code> flag that decides how ties are
+	 *                    broken.
+	 * @param <T>:        the type parameter of the collection.
+	 * @return a new list of the elements from shortest to longest.
+	 * @throws IllegalArgumentException if any length is negative.
+	 */
+	public static <T> List<T> sortByLength(Collection<T> items, ToIntFunction<? super T> length, boolean from_start) {
+		return sortByLength(items, length, from_start, 1);
+	}
+
+	/**
+	 * The same as {@link #sortByLength}, but counts and places the elements on
+	 * all cores. The result is identical.
+	 *
+	 * @param items:      the given collection of elements
+	 * @param length:     gives the length of an element.
+	 * @param from_start: a <code>boolean</code> flag that decides how ties are
+	 *                    broken.
+	 * @param <T>:        the type parameter of the collection.
+	 * @return a new list of the elements from shortest to longest.
+	 * @throws IllegalArgumentException if any length is negative.
+	 */
+	public static <T> List<T> sortByLengthParallel(Collection<T> items, ToIntFunction<? super T> length,
+			boolean from_start) {
+		return sortByLength(items, length, from_start, ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * Splits the elements into chunks, each of which counts its own lengths. The
+	 * start of each chunk's run of each length is then laid out length by length,
+	 * and chunk by chunk in encounter order (or reversed, for
+	 * <code>!from_start</code>), which is what keeps the sort stable. With a
+	 * parallelism of 1 there is a single chunk, and <code>length</code> is only
+	 * ever called on the calling thread.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> sortByLength(Collection<T> items, ToIntFunction<? super T> length, boolean from_start,
+			int parallelism) {
+		T[] in = (T[]) items.toArray();
+		int n = in.length;
+
+		if (n == 0)
+			return new ArrayList<>();
+
+		boolean parallel = parallelism > 1;
+		int chunks = parallel ? (int) Math.max(1, Math.min(4L * parallelism, n / SEQUENTIAL_THRESHOLD)) : 1;
+		int chunkSize = (n + chunks - 1) / chunks;
+		int[] keys = new int[n];
+		int[] maxima = new int[chunks];
+
+		forEachChunk(chunks, parallel, c -> {
+			int max = 0;
+
+			for (int i = c * chunkSize, end = Math.min(n, i + chunkSize); i < end; i++) {
+				int key = checkedLength(length, in[i]);
+				keys[i] = key;
+				max = Math.max(max, key);
+			}
+
+			maxima[c] = max;
+		});
+
+		int maxKey = Arrays.stream(maxima).max().getAsInt();
+
+		// A few very long elements would make the counts larger than the input.
+		if (chunks * (maxKey + 1L) > 4L * n + 1024) {
+			List<T> sorted = new ArrayList<>(Arrays.asList(in));
+			if (!from_start)
+				Collections.reverse(sorted);
+
+			sorted.sort(Comparator.comparingInt(length));
+			return sorted;
+		}
+
+		int[][] starts = new int[chunks][maxKey + 1];
+
+		forEachChunk(chunks, parallel, c -> {
+			int[] count = starts[c];
+
+			for (int i = c * chunkSize, end = Math.min(n, i + chunkSize); i < end; i++)
+				count[keys[i]]++;
+		});
+
+		int at = 0;
+
+		for (int key = 0; key <= maxKey; key++) {
+			for (int j = 0; j < chunks; j++) {
+				int[] count = starts[from_start ? j : chunks - 1 - j];
+				int size = count[key];
+				count[key] = at;
+				at += size;
+			}
+		}
+
+		Object[] out = new Object[n];
+
+		forEachChunk(chunks, parallel, c -> {
+			int[] next = starts[c];
+			int begin = c * chunkSize, end = Math.min(n, begin + chunkSize);
+
+			if (from_start) {
+				for (int i = begin; i < end; i++)
+					out[next[keys[i]]++] = in[i];
+			} else {
+				for (int i = end - 1; i >= begin; i--)
+					out[next[keys[i]]++] = in[i];
+			}
+		});
+
+		return new ArrayList<>(Arrays.asList((T[]) out));
+	}
+
+	/**
+	 * Runs <code>body</code> for every chunk, on the common pool if
+	 * <code>parallel</code> and otherwise in order on the calling thread.
+	 */
+	private static void forEachChunk(int chunks, boolean parallel, IntConsumer body) {
+		if (parallel) {
+			IntStream.range(0, chunks).parallel().forEach(body);
+		} else {
+			for (int c = 0; c < chunks; c++)
+				body.accept(c);
+		}
+	}
+
+	/**
+	 * The best element found in one part of a collection, and its index in the
+	 * whole collection.
+	 */
+	private static final class Best<T> {
+		T element;
+		long index = -1;
+	}
+
+	private static final class BestTask<T> extends RecursiveTask<Best<T>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Spliterator<T> spliterator;
+		private final long base;
+		private final Comparator<? super T> order;
+		private final boolean from_start;
+		private final long threshold;
+
+		BestTask(Spliterator<T> spliterator, long base, Comparator<? super T> order, boolean from_start,
+				long threshold) {
+			this.spliterator = spliterator;
+			this.base = base;
+			this.order = order;
+			this.from_start = from_start;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected Best<T> compute() {
+			if (spliterator.estimateSize() > threshold) {
+				Spliterator<T> prefix = spliterator.trySplit();
+
+				if (prefix != null) {
+					BestTask<T> left = new BestTask<>(prefix, base, order, from_start, threshold);
+					BestTask<T> right = new BestTask<>(spliterator, base + prefix.getExactSizeIfKnown(), order,
+							from_start, threshold);
+
+					left.fork();
+					Best<T> b = right.compute();
+					Best<T> a = left.join();
+
+					return pick(a, b);
+				}
+			}
+
+			return search(spliterator, base, order, from_start);
+		}
+
+		private Best<T> pick(Best<T> a, Best<T> b) {
+			if (a.index < 0)
+				return b;
+			if (b.index < 0)
+				return a;
+
+			int c = order.compare(b.element, a.element);
+
+			if (c != 0)
+				return c < 0 ? b : a;
+
+			return (a.index < b.index) == from_start ? a : b;
+		}
+
+		static <T> Best<T> search(Spliterator<T> spliterator, long base, Comparator<? super T> order,
+				boolean from_start) {
+			Best<T> best = new Best<>();
+			long[] index = { base };
+
+			spliterator.forEachRemaining(element -> {
+				long i = index[0]++;
+
+				if (best.index < 0) {
+					best.element = element;
+					best.index = i;
+					return;
+				}
+
+				int c = order.compare(element, best.element);
+
+				if (c < 0 || (c == 0 && !from_start)) {
+					best.element = element;
+					best.index = i;
+				}
+			});
+
+			return best;
+		}
 	}
 
 	/**
@@ -71,7 +720,309 @@ public class StreamUtils {
 	 * @return the flattened list representation of <code>aMap</code>.
 	 */
 	public static <K, V> List<String> flatten(Map<K, V> aMap) {
-		return aMap.entrySet().stream().map((pair) -> pair.getKey().toString() + " -> " + pair.getValue().toString())
-				.collect(Collectors.toList());
+		return flattenLazily(aMap).collect(Collectors.toList());
+	}
+
+	/**
+	 * The same as {@link #flatten(Map)}, but as a lazy stream: each line is only
+	 * built when the stream gets to its entry, so the lines never all have to be
+	 * in memory at once.
+	 *
+	 * @param aMap the specified input map.
+	 * @param <K>  the type parameter of keys in <code>aMap</code>.
+	 * @param <V>  the type parameter of values in <code>aMap</code>.
+	 * @return the stream of "key -> value" lines.
+	 */
+	public static <K, V> Stream<String> flattenLazily(Map<K, V> aMap) {
+		return aMap.entrySet().stream().map((pair) -> pair.getKey().toString() + " -> " + pair.getValue().toString());
+	}
+
+	/**
+	 * Writes the lines of {@link #flatten(Map)} to <code>out</code>, each followed
+	 * by a line separator, appending the parts of each line directly instead of
+	 * concatenating them first. This is also the way to write them to a
+	 * <code>Writer</code>, which the caller remains responsible for flushing and
+	 * closing.
+	 *
+	 * @param aMap the specified input map.
+	 * @param out  where to write the lines.
+	 * @param <K>  the type parameter of keys in <code>aMap</code>.
+	 * @param <V>  the type parameter of values in <code>aMap</code>.
+	 * @throws IOException if writing to <code>out</code> fails.
+	 */
+	public static <K, V> void flatten(Map<K, V> aMap, Appendable out) throws IOException {
+		for (Map.Entry<K, V> pair : aMap.entrySet())
+			out.append(pair.getKey().toString()).append(" -> ").append(pair.getValue().toString())
+					.append(System.lineSeparator());
+	}
+
+	// The size of the buffer flatten encodes into before writing to a channel.
+	private static final int CHANNEL_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Writes the lines of {@link #flatten(Map)} to <code>channel</code> as UTF-8,
+	 * each followed by a line separator. The lines are built one at a time in a
+	 * single reused <code>StringBuilder</code> and encoded into a single buffer,
+	 * which is written out whenever it fills up.
+	 *
+	 * @param aMap    the specified input map.
+	 * @param channel where to write the lines, which is left open.
+	 * @param <K>     the type parameter of keys in <code>aMap</code>.
+	 * @param <V>     the type parameter of values in <code>aMap</code>.
+	 * @throws IOException if writing to <code>channel</code> fails.
+	 */
+	public static <K, V> void flatten(Map<K, V> aMap, WritableByteChannel channel) throws IOException {
+		CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+		ByteBuffer buffer = ByteBuffer.allocate(CHANNEL_BUFFER_SIZE);
+		StringBuilder line = new StringBuilder(64);
+
+		for (Map.Entry<K, V> pair : aMap.entrySet()) {
+			line.setLength(0);
+			line.append(pair.getKey().toString()).append(" -> ").append(pair.getValue().toString())
+					.append(System.lineSeparator());
+
+			encode(encoder, CharBuffer.wrap(line), buffer, channel, false);
+		}
+
+		// Stateful encoders may still hold input or need to write a closing
+		// sequence.
+		encode(encoder, CharBuffer.allocate(0), buffer, channel, true);
+
+		while (true) {
+			CoderResult result = encoder.flush(buffer);
+
+			if (result.isUnderflow())
+				break;
+			if (result.isOverflow())
+				drain(buffer, channel);
+			else
+				result.throwException();
+		}
+
+		drain(buffer, channel);
+	}
+
+	/**
+	 * Encodes all of <code>chars</code> into <code>buffer</code>, writing the
+	 * buffer out to <code>channel</code> whenever it fills up.
+	 */
+	private static void encode(CharsetEncoder encoder, CharBuffer chars, ByteBuffer buffer,
+			WritableByteChannel channel, boolean endOfInput) throws IOException {
+		while (true) {
+			CoderResult result = encoder.encode(chars, buffer, endOfInput);
+
+			if (result.isUnderflow())
+				break;
+			if (result.isOverflow())
+				drain(buffer, channel);
+			else
+				result.throwException();
+		}
+	}
+
+	private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+		buffer.flip();
+
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+
+		buffer.clear();
+	}
+
+	/**
+	 * Hands the lines of {@link #flatten(Map)} to <code>action</code>, using the
+	 * bulk {@link ConcurrentHashMap#forEach(long, java.util.function.BiConsumer)}
+	 * so that large maps are flattened on all cores. The lines arrive in no
+	 * particular order, and <code>action</code> must be safe to call from many
+	 * threads at once.
+	 *
+	 * @param aMap                 the specified input map.
+	 * @param parallelismThreshold the number of entries below which the map is
+	 *                             flattened on the current thread, as in
+	 *                             <code>ConcurrentHashMap.forEach</code>.
+	 * @param action               receives each line.
+	 * @param <K>                  the type parameter of keys in <code>aMap</code>.
+	 * @param <V>                  the type parameter of values in
+	 *                             <code>aMap</code>.
+	 */
+	public static <K, V> void flatten(ConcurrentHashMap<K, V> aMap, long parallelismThreshold,
+			Consumer<? super String> action) {
+		aMap.forEach(parallelismThreshold, (key, value) -> action.accept(key.toString() + " -> " + value.toString()));
+	}
+
+	/**
+	 * The results an {@link Aggregate} can compute.
+	 */
+	public enum Metric {
+		/** The strings that start with a capital letter, as in {@link #capitalized}. */
+		CAPITALIZED,
+		/** The longest string, as in {@link #longest}. */
+		LONGEST,
+		/** The least string, as in {@link #least}. */
+		LEAST,
+		/** The number of strings, and the least and greatest length. */
+		COUNT,
+		/** The number of strings of each length. */
+		LENGTH_HISTOGRAM
+	}
+
+	/**
+	 * Returns a collector that computes the given metrics of a stream of
+	 * <code>String</code>s in a single pass. Collecting a parallel stream gives
+	 * the same results as collecting it sequentially: partial results are always
+	 * combined in encounter order, so ties are broken exactly as in
+	 * {@link #longest} and {@link #least}.
+	 *
+	 * @param from_start: a <code>boolean</code> flag that decides how ties are
+	 *                    broken for the longest and least string. If
+	 *                    <code>true</code>, the element encountered earlier is
+	 *                    kept, otherwise the later element is.
+	 * @param metrics:    the metrics to compute, or none to compute all of them.
+	 * @return the collector.
+	 */
+	public static Collector<String, ?, Aggregate> aggregate(boolean from_start, Metric... metrics) {
+		Set<Metric> wanted = metrics.length == 0 ? EnumSet.allOf(Metric.class) : EnumSet.copyOf(Arrays.asList(metrics));
+
+		return Collector.of(() -> new Aggregate(from_start, wanted), Aggregate::accept, Aggregate::combine,
+				Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	/**
+	 * The results of {@link #aggregate}. Metrics that were not asked for keep
+	 * their empty values.
+	 */
+	public static final class Aggregate {
+
+		private final boolean from_start;
+		private final boolean capitalizedWanted, longestWanted, leastWanted, countWanted, histogramWanted;
+
+		private final List<String> capitalized = new ArrayList<>();
+		private String longest, least;
+		private long count;
+		private int minLength = Integer.MAX_VALUE, maxLength = -1;
+		private long[] histogram = new long[0];
+
+		private Aggregate(boolean from_start, Set<Metric> metrics) {
+			this.from_start = from_start;
+			this.capitalizedWanted = metrics.contains(Metric.CAPITALIZED);
+			this.longestWanted = metrics.contains(Metric.LONGEST);
+			this.leastWanted = metrics.contains(Metric.LEAST);
+			this.countWanted = metrics.contains(Metric.COUNT);
+			this.histogramWanted = metrics.contains(Metric.LENGTH_HISTOGRAM);
+		}
+
+		private void accept(String element) {
+			int length = element.length();
+
+			if (capitalizedWanted && isCapitalized(element))
+				capitalized.add(element);
+
+			if (longestWanted && (longest == null || longest.length() < length
+					|| (longest.length() == length && !from_start)))
+				longest = element;
+
+			if (leastWanted) {
+				int c = least == null ? -1 : element.compareTo(least);
+
+				if (c < 0 || (c == 0 && !from_start))
+					least = element;
+			}
+
+			if (countWanted) {
+				count++;
+				minLength = Math.min(minLength, length);
+				maxLength = Math.max(maxLength, length);
+			}
+
+			if (histogramWanted) {
+				if (length >= histogram.length)
+					histogram = Arrays.copyOf(histogram, Math.max(length + 1, histogram.length * 2));
+
+				histogram[length]++;
+			}
+		}
+
+		/**
+		 * Adds the results of the elements after those of this aggregate.
+		 */
+		private Aggregate combine(Aggregate later) {
+			capitalized.addAll(later.capitalized);
+
+			if (later.longest != null && (longest == null || longest.length() < later.longest.length()
+					|| (longest.length() == later.longest.length() && !from_start)))
+				longest = later.longest;
+
+			if (later.least != null) {
+				int c = least == null ? -1 : later.least.compareTo(least);
+
+				if (c < 0 || (c == 0 && !from_start))
+					least = later.least;
+			}
+
+			count += later.count;
+			minLength = Math.min(minLength, later.minLength);
+			maxLength = Math.max(maxLength, later.maxLength);
+
+			if (later.histogram.length > histogram.length)
+				histogram = Arrays.copyOf(histogram, later.histogram.length);
+
+			for (int i = 0; i < later.histogram.length; i++)
+				histogram[i] += later.histogram[i];
+
+			return this;
+		}
+
+		/**
+		 * @return the strings that start with a capital letter, in encounter order.
+		 */
+		public List<String> capitalized() {
+			return Collections.unmodifiableList(capitalized);
+		}
+
+		/**
+		 * @return the longest string, or <code>null</code> if there were none.
+		 */
+		public String longest() {
+			return longest;
+		}
+
+		/**
+		 * @return the least string, or <code>null</code> if there were none.
+		 */
+		public String least() {
+			return least;
+		}
+
+		/**
+		 * @return the number of strings.
+		 */
+		public long count() {
+			return count;
+		}
+
+		/**
+		 * @return the length of the shortest string, or -1 if there were none.
+		 */
+		public int minLength() {
+			return count == 0 ? -1 : minLength;
+		}
+
+		/**
+		 * @return the length of the longest string, or -1 if there were none.
+		 */
+		public int maxLength() {
+			return maxLength;
+		}
+
+		/**
+		 * @return an array whose element i is the number of strings of length i.
+		 */
+		public long[] lengthHistogram() {
+			int size = histogram.length;
+			while (size > 0 && histogram[size - 1] == 0)
+				size--;
+
+			return Arrays.copyOf(histogram, size);
+		}
 	}
 }
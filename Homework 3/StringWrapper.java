@@ -12,6 +12,14 @@ public class StringWrapper implements Comparable<StringWrapper> {
         return str;
     }
 
+    /**
+     * @return the length of the wrapped string, which is what wrappers are
+     *         ordered by.
+     */
+    public int length() {
+        return str.length();
+    }
+
     @Override
     public String toString() {
         return str;
@@ -19,6 +27,6 @@ public class StringWrapper implements Comparable<StringWrapper> {
 
     @Override
     public int compareTo(StringWrapper o) {
-        return ((Integer) str.length()).compareTo(o.getStr().length());
+        return Integer.compare(str.length(), o.getStr().length());
     }
 }